@@ -1,7 +1,3 @@
-import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-
 /**
  * Créer le : vendredi 18 avril 2025
  * Auteur     : Yoann Meclot (DevMyBits)
@@ -30,9 +26,9 @@ final class AmlAttribute implements AmlPullWriter.Attribute, Evaluator.Evaluable
         return mValue;
     }
 
-    public void writeTo(OutputStream output) throws IOException
+    public void writeTo(AmlPullWriterFactory writer) throws AmlPullWriterException
     {
-        output.write((" " + mName + "=\"" + mValue + "\"").getBytes(StandardCharsets.UTF_8));
+        writer.writeAttribute(mName, mValue);
     }
 
     AmlAttribute(final String name, final String value) throws AmlPullWriterException
@@ -0,0 +1,165 @@
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * {@code AmlBatchParser} is an helper class to parse many small Atao Markup Language files concurrently.
+ * <br><br>
+ * The files are parsed by a bounded count of threads, with pooled {@link AmlPullParser} whose buffers are reused from a file to the next.
+ * The next files are opened by the calling thread while the previous ones are parsed, so the time to open a file is hidden by the parsing.
+ * <br><br>
+ * This is an example to use this parser :
+ * <blockquote><pre>
+ *     AmlBatchParser parser = AmlBatchParser.newBatchParser(8);
+ *     AmlBatchParser.Stats stats = parser.parse(Paths.get("inbox"), (input, p) -&gt; {
+ *          p.next();
+ *          return p.getName();
+ *     }, new AmlBatchParser.Callback&lt;String&gt;() {
+ *          public void onResult(Path input, String root) { ... }
+ *          public void onError(Path input, Exception error) { ... }
+ *     });
+ *     System.out.println(stats);
+ * </pre></blockquote>
+ * The callback is called on the calling thread, in order of completion, while the other files are parsed.
+ * @since 1.2
+ * @Version 1.0
+ * @Created  : vendredi 17 octobre 2026
+ * @Author   : Yoann Meclot (DevMyBits)
+ * @E-mail   : devmybits@gmail.com
+ * @see AmlPullParserPool
+ */
+public interface AmlBatchParser
+{
+    /**
+     * Create instance of batch AML parser.
+     *
+     * @param parallelism The max count of files parsed at the same time.
+     * @param features The features set to {@code true} on each parser given to the handler.
+     * @return New instance of {@code AmlBatchParser}.
+     * @throws IllegalArgumentException If parallelism is lower than 1.
+     * @since 1.2
+     */
+    static AmlBatchParser newBatchParser(int parallelism, String... features)
+    {
+        return new AmlBatchParserFactory(parallelism, features);
+    }
+
+    /**
+     * Parse all files with {@code .aml} extension of directory and its sub directories.
+     *
+     * @param directory The directory to be walked.
+     * @param handler The handler called for each file, concurrently.
+     * @param callback The callback of results and errors of each file, called on the calling thread.
+     * @param <T> The type of handler result.
+     * @return The stats of parsing.
+     * @throws AmlPullParserException If the directory can't be walked or if the calling thread is interrupted.
+     * @since 1.2
+     */
+    <T> Stats parse(Path directory, Handler<T> handler, Callback<? super T> callback) throws AmlPullParserException;
+
+    /**
+     * Parse a list of files.
+     *
+     * @param inputs The paths of files to be parsed.
+     * @param handler The handler called for each file, concurrently.
+     * @param callback The callback of results and errors of each file, called on the calling thread.
+     * @param <T> The type of handler result.
+     * @return The stats of parsing.
+     * @throws AmlPullParserException If the calling thread is interrupted.
+     * @since 1.2
+     */
+    <T> Stats parse(Collection<Path> inputs, Handler<T> handler, Callback<? super T> callback) throws AmlPullParserException;
+
+    /**
+     * The {@code Handler} class read one file.
+     *
+     * @param <T> The type of result.
+     * @since 1.2
+     * @Version 1.0
+     */
+    interface Handler<T>
+    {
+        /**
+         * Read one file.
+         *
+         * @param input The path of file.
+         * @param parser The parser with the file as input, owned by the handler until it returns.
+         * @return The result of file.
+         * @throws AmlPullParserException If serval errors is occurred on parsing the file.
+         * @since 1.2
+         */
+        T handle(Path input, AmlPullParser parser) throws AmlPullParserException;
+    }
+
+    /**
+     * The {@code Callback} class receives the result or the error of each file.
+     *
+     * @param <T> The type of result.
+     * @since 1.2
+     * @Version 1.0
+     */
+    interface Callback<T>
+    {
+        /**
+         * Receive the result of file.
+         *
+         * @param input The path of file.
+         * @param result The result returned by handler.
+         * @since 1.2
+         */
+        void onResult(Path input, T result);
+
+        /**
+         * Receive the error of file, the file can't be opened or the handler failed.
+         *
+         * @param input The path of file.
+         * @param error The error of file.
+         * @since 1.2
+         */
+        void onError(Path input, Exception error);
+    }
+
+    /**
+     * The {@code Stats} class gives the throughput of a batch.
+     *
+     * @since 1.2
+     * @Version 1.0
+     */
+    interface Stats
+    {
+        /**
+         * @return The count of files, with the failed files.
+         * @since 1.2
+         */
+        int getFileCount();
+
+        /**
+         * @return The count of failed files.
+         * @since 1.2
+         */
+        int getErrorCount();
+
+        /**
+         * @return The count of bytes of opened files.
+         * @since 1.2
+         */
+        long getByteCount();
+
+        /**
+         * @return The duration of batch in nanoseconds.
+         * @since 1.2
+         */
+        long getDuration();
+
+        /**
+         * @return The count of files parsed by second.
+         * @since 1.2
+         */
+        double getFilesPerSecond();
+
+        /**
+         * @return The count of bytes parsed by second.
+         * @since 1.2
+         */
+        double getBytesPerSecond();
+    }
+}
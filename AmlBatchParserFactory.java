@@ -0,0 +1,229 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Stream;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlBatchParserFactory implements AmlBatchParser
+{
+    private final int mParallelism;
+    private final AmlPullParserPool mParsers;
+
+    @Override
+    public <T> Stats parse(Path directory, Handler<T> handler, Callback<? super T> callback) throws AmlPullParserException
+    {
+        try (Stream<Path> files = Files.walk(directory)) {
+            Iterator<Path> inputs = files.filter(file -> file.getFileName().toString().endsWith(".aml") && Files.isRegularFile(file)).iterator();
+            return parse(inputs, handler, callback);
+        } catch (IOException | UncheckedIOException e) {
+            throw new AmlPullParserException(e instanceof UncheckedIOException ? e.getCause() : e);
+        }
+    }
+
+    @Override
+    public <T> Stats parse(Collection<Path> inputs, Handler<T> handler, Callback<? super T> callback) throws AmlPullParserException
+    {
+        return parse(inputs.iterator(), handler, callback);
+    }
+
+    private <T> Stats parse(Iterator<Path> inputs, Handler<T> handler, Callback<? super T> callback) throws AmlPullParserException
+    {
+        // The files are opened ahead of the workers, so a worker never waits the opening of its next file.
+        BlockingQueue<Outcome<T>> outcomes = new LinkedBlockingQueue<>();
+        ExecutorService workers = Executors.newFixedThreadPool(mParallelism);
+        BatchStats stats = new BatchStats(System.nanoTime());
+        int maxPending = mParallelism * 2;
+        int pending = 0;
+        try {
+            while (inputs.hasNext()) {
+                Path input = inputs.next();
+                while (pending >= maxPending)
+                {
+                    deliver(outcomes.take(), callback, stats);
+                    pending--;
+                }
+
+                FileChannel channel;
+                try {
+                    channel = FileChannel.open(input, StandardOpenOption.READ);
+                } catch (IOException e) {
+                    deliver(new Outcome<>(input, null, e, 0), callback, stats);
+                    continue;
+                }
+
+                workers.execute(new Task<>(input, channel, handler, outcomes));
+                pending++;
+
+                Outcome<T> outcome;
+                while ((outcome = outcomes.poll()) != null)
+                {
+                    deliver(outcome, callback, stats);
+                    pending--;
+                }
+            }
+
+            while (pending > 0)
+            {
+                deliver(outcomes.take(), callback, stats);
+                pending--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmlPullParserException(e);
+        } finally {
+            // The files opened for tasks never started are closed here.
+            for (Runnable task : workers.shutdownNow()) ((Task<?>) task).close();
+        }
+
+        stats.mDuration = System.nanoTime() - stats.mStart;
+        return stats;
+    }
+
+    private static <T> void deliver(Outcome<T> outcome, Callback<? super T> callback, BatchStats stats)
+    {
+        stats.mFileCount++;
+        stats.mByteCount += outcome.mSize;
+        if (outcome.mError == null) callback.onResult(outcome.mInput, outcome.mResult);
+        else
+        {
+            stats.mErrorCount++;
+            callback.onError(outcome.mInput, outcome.mError);
+        }
+    }
+
+    AmlBatchParserFactory(int parallelism, String[] features)
+    {
+        if (parallelism < 1) throw new IllegalArgumentException("Illegal parallelism " + parallelism + " ! Provide a parallelism greater than 0.");
+
+        mParallelism = parallelism;
+        mParsers = AmlPullParserPool.newPool(parallelism, features);
+    }
+
+    private final class Task<T> implements Runnable
+    {
+        private final Path mInput;
+        private final FileChannel mChannel;
+        private final Handler<T> mHandler;
+        private final BlockingQueue<Outcome<T>> mOutcomes;
+
+        @Override
+        public void run()
+        {
+            long size = 0;
+            AmlPullParser parser = null;
+            try (InputStream stream = Channels.newInputStream(mChannel)) {
+                size = mChannel.size();
+                parser = mParsers.borrow();
+                parser.setInput(stream);
+                mOutcomes.add(new Outcome<>(mInput, mHandler.handle(mInput, parser), null, size));
+            } catch (Throwable e) {
+                mOutcomes.add(new Outcome<>(mInput, null, e instanceof Exception ? (Exception) e : new AmlPullParserException(e), size));
+            } finally {
+                mParsers.release(parser);
+            }
+        }
+
+        void close()
+        {
+            try {
+                mChannel.close();
+            } catch (IOException ignored) {}
+        }
+
+        Task(Path input, FileChannel channel, Handler<T> handler, BlockingQueue<Outcome<T>> outcomes)
+        {
+            mInput = input;
+            mChannel = channel;
+            mHandler = handler;
+            mOutcomes = outcomes;
+        }
+    }
+
+    private static final class Outcome<T>
+    {
+        private final Path mInput;
+        private final T mResult;
+        private final Exception mError;
+        private final long mSize;
+
+        Outcome(Path input, T result, Exception error, long size)
+        {
+            mInput = input;
+            mResult = result;
+            mError = error;
+            mSize = size;
+        }
+    }
+
+    private static final class BatchStats implements Stats
+    {
+        private final long mStart;
+        private int mFileCount;
+        private int mErrorCount;
+        private long mByteCount;
+        private long mDuration;
+
+        @Override
+        public int getFileCount()
+        {
+            return mFileCount;
+        }
+
+        @Override
+        public int getErrorCount()
+        {
+            return mErrorCount;
+        }
+
+        @Override
+        public long getByteCount()
+        {
+            return mByteCount;
+        }
+
+        @Override
+        public long getDuration()
+        {
+            return mDuration;
+        }
+
+        @Override
+        public double getFilesPerSecond()
+        {
+            return mDuration == 0 ? 0 : mFileCount * 1e9 / mDuration;
+        }
+
+        @Override
+        public double getBytesPerSecond()
+        {
+            return mDuration == 0 ? 0 : mByteCount * 1e9 / mDuration;
+        }
+
+        @Override
+        public String toString()
+        {
+            return mFileCount + " files (" + mErrorCount + " errors), " + mByteCount + " bytes in " + (mDuration / 1000000) + " ms : "
+                    + Math.round(getFilesPerSecond()) + " files/s, " + Math.round(getBytesPerSecond() / (1024 * 1024)) + " MB/s";
+        }
+
+        BatchStats(long start)
+        {
+            mStart = start;
+        }
+    }
+}
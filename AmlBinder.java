@@ -0,0 +1,62 @@
+/**
+ * {@code AmlBinder} reads Java records and beans from Atao Markup Language elements.
+ * <br><br>
+ * The binder of a class is compiled once, with {@link java.lang.invoke.MethodHandle} for its constructor and its setters, then cached for the class.
+ * Reading an element don't use reflection, the attributes are found by their index and parsed by the typed getters of parser,
+ * like {@link AmlPullParser#getAttributeInt(int)}, without create {@code String} for the numbers.
+ * <br><br>
+ * The properties are the components of a record, or the public {@code setXxx} methods of a class with a constructor without parameter :
+ * <ul>
+ *     <li>{@code String}, {@code int}, {@code long}, {@code double}, {@code float}, {@code boolean}, their boxed types and the enums are read from the attribute of same name.</li>
+ *     <li>A record or a bean is read from the child element of same name.</li>
+ *     <li>A {@code List} of records or beans is read from all the child elements of same name.</li>
+ * </ul>
+ * The missing attributes give {@code 0}, {@code false} or {@code null}, the missing lists give an empty list. The other attributes and elements are skipped.
+ * <br><br>
+ * This is an example to use this binder :
+ * <blockquote><pre>
+ *     record Author(String name, int born) {}
+ *     record Book(String title, double price, Author editor, List&lt;Author&gt; author) {}
+ *
+ *     // {book title="Dune" price="9.5"}{editor name="Chilton" born="1930"/}{author name="Herbert" born="1920"/}{/}
+ *     AmlBinder&lt;Book&gt; binder = AmlBinder.of(Book.class);
+ *     while ((eventType = parser.next()) != AmlPullParser.END_DOCUMENT) {
+ *          if (eventType == AmlPullParser.START_TAG &amp;&amp; "book".equals(parser.getName())) books.add(binder.read(parser));
+ *     }
+ * </pre></blockquote>
+ * A binder is thread safe, one binder can read many parsers at the same time.
+ * @since 1.2
+ * @Version 1.0
+ * @Created  : vendredi 17 octobre 2026
+ * @Author   : Yoann Meclot (DevMyBits)
+ * @E-mail   : devmybits@gmail.com
+ * @param <T> The type of bound objects.
+ * @see AmlPullParser
+ */
+public interface AmlBinder<T>
+{
+    /**
+     * Get the binder of class, compiled on the first call.
+     *
+     * @param type The class of record or bean.
+     * @param <T> The type of bound objects.
+     * @return The binder of class.
+     * @throws IllegalArgumentException If the class or one of its properties can't be bound.
+     * @since 1.2
+     */
+    static <T> AmlBinder<T> of(Class<T> type)
+    {
+        return AmlBinderFactory.of(type);
+    }
+
+    /**
+     * Read the current element and its children. The current event must be {@link AmlPullParser#START_TAG},
+     * after the call the current event is the {@link AmlPullParser#END_TAG} of element.
+     *
+     * @param parser The parser on the start tag of element.
+     * @return The object read from element.
+     * @throws AmlPullParserException If the current event is not a start tag, if a value is not valid or if serval errors is occurred on parsing.
+     * @since 1.2
+     */
+    T read(AmlPullParser parser) throws AmlPullParserException;
+}
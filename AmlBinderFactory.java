@@ -0,0 +1,296 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlBinderFactory<T> implements AmlBinder<T>
+{
+    private static final int STRING = 0;
+    private static final int INT = 1;
+    private static final int LONG = 2;
+    private static final int DOUBLE = 3;
+    private static final int FLOAT = 4;
+    private static final int BOOLEAN = 5;
+    private static final int ENUM = 6;
+    private static final int ELEMENT = 7;
+    private static final int LIST = 8;
+
+    private static final Class<?>[] KIND_TYPES = { String.class, int.class, long.class, double.class, float.class, boolean.class, Object.class, Object.class, Object.class };
+
+    private static final ClassValue<AmlBinderFactory<?>> BINDERS = new ClassValue<>()
+    {
+        @Override
+        protected AmlBinderFactory<?> computeValue(Class<?> type)
+        {
+            return new AmlBinderFactory<>(type);
+        }
+    };
+
+    private final Class<T> mType;
+    private final boolean mRecord;
+    private final MethodHandle mConstructor;
+    private final String[] mNames;
+    private final int[] mKinds;
+    private final Class<?>[] mClasses;
+    private final MethodHandle[] mSetters;
+    private final Object[] mDefaults;
+    private final Object[][] mConstants;
+    private final AmlBinderFactory<?>[] mBinders;
+    private final int[] mHints = new int[16];
+
+    @SuppressWarnings("unchecked")
+    static <T> AmlBinder<T> of(Class<T> type)
+    {
+        return (AmlBinder<T>) BINDERS.get(type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read(AmlPullParser parser) throws AmlPullParserException
+    {
+        if (parser.getEventType() != AmlPullParser.START_TAG) throw new AmlPullParserException("Illegal state, bind " + mType.getName() + " is only allowed on START_TAG.");
+
+        try {
+            // A record is built from the array of its components, a bean is built first then its setters are called.
+            Object target = mRecord ? mDefaults.clone() : mConstructor.invoke();
+
+            int count = parser.getAttributeCount();
+            for (int i = 0; i < count; i++)
+            {
+                int slot = findAttribute(parser.getAttributeName(i), i);
+                if (slot != -1) setAttribute(target, slot, parser, i);
+            }
+
+            Object[] lists = null;
+            int depth = parser.getDepth();
+            while (true) {
+                int eventType = parser.next();
+                if (eventType == AmlPullParser.END_TAG && parser.getDepth() == depth) break;
+                if (eventType == AmlPullParser.END_DOCUMENT) throw new AmlPullParserException("Unexpected end of document in element bound to " + mType.getName());
+                if (eventType != AmlPullParser.START_TAG) continue;
+
+                int slot = findElement(parser.getName());
+                if (slot == -1)
+                {
+                    parser.skipSubtree();
+                    continue;
+                }
+
+                Object child = binder(slot).read(parser);
+                if (mKinds[slot] == ELEMENT) mSetters[slot].invokeExact(target, child);
+                else
+                {
+                    if (lists == null) lists = new Object[mNames.length];
+                    if (lists[slot] == null) lists[slot] = new ArrayList<>();
+                    ((List<Object>) lists[slot]).add(child);
+                }
+            }
+
+            // The missing lists of bean are set empty, like the defaults of record.
+            for (int slot = 0; slot < mKinds.length; slot++)
+            {
+                if (mKinds[slot] != LIST) continue;
+                Object list = lists != null ? lists[slot] : null;
+                if (list != null) mSetters[slot].invokeExact(target, list);
+                else if (!mRecord) mSetters[slot].invokeExact(target, (Object) List.of());
+            }
+            return mType.cast(mRecord ? (Object) mConstructor.invokeExact((Object[]) target) : target);
+        } catch (AmlPullParserException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new AmlPullParserException(e);
+        }
+    }
+
+    private void setAttribute(Object target, int slot, AmlPullParser parser, int index) throws Throwable
+    {
+        MethodHandle setter = mSetters[slot];
+        switch (mKinds[slot])
+        {
+            case STRING:
+                setter.invokeExact(target, parser.getAttributeValue(index));
+                break;
+            case INT:
+                setter.invokeExact(target, parser.getAttributeInt(index));
+                break;
+            case LONG:
+                setter.invokeExact(target, parser.getAttributeLong(index));
+                break;
+            case DOUBLE:
+                setter.invokeExact(target, parser.getAttributeDouble(index));
+                break;
+            case FLOAT:
+                setter.invokeExact(target, (float) parser.getAttributeDouble(index));
+                break;
+            case BOOLEAN:
+                setter.invokeExact(target, parser.getAttributeBoolean(index));
+                break;
+            case ENUM:
+                setter.invokeExact(target, constant(slot, parser.getAttributeValue(index)));
+                break;
+        }
+    }
+
+    private int findAttribute(String name, int index)
+    {
+        // The attributes are often in the same order from an element to the next, the property found at this index for the previous element is tried first.
+        if (index < mHints.length && mNames.length > 0)
+        {
+            int hint = mHints[index];
+            if (mKinds[hint] < ELEMENT && mNames[hint].equals(name)) return hint;
+        }
+        for (int slot = 0; slot < mNames.length; slot++)
+        {
+            if (mKinds[slot] >= ELEMENT || !mNames[slot].equals(name)) continue;
+            if (index < mHints.length) mHints[index] = slot;
+            return slot;
+        }
+        return -1;
+    }
+
+    private int findElement(String name)
+    {
+        for (int slot = 0; slot < mNames.length; slot++)
+        {
+            if (mKinds[slot] >= ELEMENT && mNames[slot].equals(name)) return slot;
+        }
+        return -1;
+    }
+
+    private AmlBinderFactory<?> binder(int slot)
+    {
+        // The binders of children are found on first use, so a class can contain itself.
+        AmlBinderFactory<?> binder = mBinders[slot];
+        if (binder == null) mBinders[slot] = binder = BINDERS.get(mClasses[slot]);
+        return binder;
+    }
+
+    private Object constant(int slot, String value) throws AmlPullParserException
+    {
+        for (Object constant : mConstants[slot])
+        {
+            if (((Enum<?>) constant).name().equals(value)) return constant;
+        }
+        throw new AmlPullParserException("Illegal value '" + value + "' for " + mNames[slot] + " ! Expected one of " + Arrays.toString(mConstants[slot]));
+    }
+
+    private static int kind(Class<?> type, Type genericType, String name, Class<?>[] classes, int slot)
+    {
+        classes[slot] = type;
+        if (type == String.class) return STRING;
+        if (type == int.class || type == Integer.class) return INT;
+        if (type == long.class || type == Long.class) return LONG;
+        if (type == double.class || type == Double.class) return DOUBLE;
+        if (type == float.class || type == Float.class) return FLOAT;
+        if (type == boolean.class || type == Boolean.class) return BOOLEAN;
+        if (type.isEnum()) return ENUM;
+        if (type == List.class)
+        {
+            Type element = genericType instanceof ParameterizedType ? ((ParameterizedType) genericType).getActualTypeArguments()[0] : null;
+            if (!(element instanceof Class) || !isBindable((Class<?>) element)) throw new IllegalArgumentException("Illegal property " + name + " ! A list must contain records or beans.");
+            classes[slot] = (Class<?>) element;
+            return LIST;
+        }
+        if (isBindable(type)) return ELEMENT;
+        throw new IllegalArgumentException("Illegal property " + name + " ! The type " + type.getName() + " can't be bound.");
+    }
+
+    private static boolean isBindable(Class<?> type)
+    {
+        if (type.isRecord()) return true;
+        if (type.isPrimitive() || type.isArray() || type.isInterface() || Modifier.isAbstract(type.getModifiers())) return false;
+        try {
+            type.getDeclaredConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Object defaultValue(Class<?> type)
+    {
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0f;
+        if (type == boolean.class) return false;
+        if (type == List.class) return List.of();
+        return null;
+    }
+
+    AmlBinderFactory(Class<T> type)
+    {
+        if (!isBindable(type)) throw new IllegalArgumentException("Illegal type " + type.getName() + " ! Provide a record or a class with a constructor without parameter.");
+
+        mType = type;
+        mRecord = type.isRecord();
+
+        RecordComponent[] components = mRecord ? type.getRecordComponents() : null;
+        List<Method> setters = new ArrayList<>();
+        if (!mRecord) for (Method method : type.getMethods())
+        {
+            if (!Modifier.isStatic(method.getModifiers()) && method.getParameterCount() == 1 && method.getName().length() > 3 && method.getName().startsWith("set")) setters.add(method);
+        }
+
+        int count = mRecord ? components.length : setters.size();
+        mNames = new String[count];
+        mKinds = new int[count];
+        mClasses = new Class<?>[count];
+        mSetters = new MethodHandle[count];
+        mDefaults = new Object[count];
+        mConstants = new Object[count][];
+        mBinders = new AmlBinderFactory<?>[count];
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            if (mRecord)
+            {
+                // The components are set in an array, given to the canonical constructor.
+                Class<?>[] types = new Class<?>[count];
+                for (int slot = 0; slot < count; slot++)
+                {
+                    RecordComponent component = components[slot];
+                    types[slot] = component.getType();
+                    mNames[slot] = component.getName();
+                    mKinds[slot] = kind(types[slot], component.getGenericType(), mNames[slot], mClasses, slot);
+                    mDefaults[slot] = defaultValue(types[slot]);
+                    mSetters[slot] = MethodHandles.insertArguments(MethodHandles.arrayElementSetter(Object[].class), 1, slot)
+                            .asType(MethodType.methodType(void.class, Object.class, KIND_TYPES[mKinds[slot]]));
+                }
+                mConstructor = lookup.unreflectConstructor(type.getDeclaredConstructor(types))
+                        .asSpreader(Object[].class, count)
+                        .asType(MethodType.methodType(Object.class, Object[].class));
+            }
+            else
+            {
+                for (int slot = 0; slot < count; slot++)
+                {
+                    Method setter = setters.get(slot);
+                    String name = setter.getName();
+                    mNames[slot] = Character.toLowerCase(name.charAt(3)) + name.substring(4);
+                    mKinds[slot] = kind(setter.getParameterTypes()[0], setter.getGenericParameterTypes()[0], mNames[slot], mClasses, slot);
+                    mSetters[slot] = lookup.unreflect(setter).asType(MethodType.methodType(void.class, Object.class, KIND_TYPES[mKinds[slot]]));
+                }
+                mConstructor = lookup.unreflectConstructor(type.getDeclaredConstructor()).asType(MethodType.methodType(Object.class));
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Illegal type " + type.getName() + " ! It can't be accessed.", e);
+        }
+
+        for (int slot = 0; slot < count; slot++)
+        {
+            if (mKinds[slot] == ENUM) mConstants[slot] = mClasses[slot].getEnumConstants();
+        }
+    }
+}
@@ -1,7 +1,3 @@
-import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-
 /**
  * Créer le : vendredi 18 avril 2025
  * Auteur     : Yoann Meclot (DevMyBits)
@@ -23,9 +19,9 @@ final class AmlComment implements AmlPullWriter.Comment, Evaluator.Evaluable<Str
         return mText;
     }
 
-    public void writeTo(OutputStream output) throws IOException
+    public void writeTo(AmlPullWriterFactory writer) throws AmlPullWriterException
     {
-        output.write(("<!" + mText + "!>").getBytes(StandardCharsets.UTF_8));
+        writer.writeComment(mText);
     }
 
     AmlComment(String text) throws AmlPullWriterException
@@ -0,0 +1,443 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlDocument implements AmlPullWriter.Document
+{
+    private static final int NONE = -1;
+    private static final int MAX_BYTES = Integer.MAX_VALUE - 8;
+
+    // The elements, their children and their items are linked by index, so an element is only some integers.
+    private int[] mNames = new int[16];
+    private int[] mParents = new int[16];
+    private int[] mFirstChildren = new int[16];
+    private int[] mLastChildren = new int[16];
+    private int[] mNextSiblings = new int[16];
+    private int[] mChildCounts = new int[16];
+    private int[] mFirstItems = new int[16];
+    private int[] mLastItems = new int[16];
+    private int mElementCount;
+
+    // The attributes and comments of elements, a comment has no name.
+    private int[] mItemNames = new int[16];
+    private int[] mItemValues = new int[16];
+    private int[] mItemNexts = new int[16];
+    private int mItemCount;
+
+    // Each string is kept one time in UTF-8, the elements and items keep its index. The bytes of string are in the arena from its offset to the offset of next string.
+    private byte[] mBytes = new byte[256];
+    private int[] mOffsets = new int[17];
+    private int[] mHashes = new int[16];
+    private int[] mSlots = new int[32];
+    private int mStringCount;
+
+    // The last child got by index, so a loop on the children of element don't walk them again.
+    private int mCursorParent = NONE;
+    private int mCursorIndex;
+    private int mCursorNode;
+
+    // Each clear starts a generation, a view of the last generation would alias the element reusing its index.
+    private int mGeneration;
+
+    @Override
+    public AmlPullWriter.Element newElement(String name) throws AmlPullWriterException
+    {
+        if (name == null || name.trim().isEmpty()) throw new AmlPullWriterException("Illegal argument. You don't add element with null name.");
+
+        if (mElementCount == mNames.length) growElements();
+        int node = mElementCount++;
+        mNames[node] = intern(name);
+        mParents[node] = NONE;
+        mFirstChildren[node] = NONE;
+        mLastChildren[node] = NONE;
+        mNextSiblings[node] = NONE;
+        mChildCounts[node] = 0;
+        mFirstItems[node] = NONE;
+        mLastItems[node] = NONE;
+        return new View(this, node);
+    }
+
+    @Override
+    public void clear()
+    {
+        // The arrays are kept for the next document.
+        mGeneration++;
+        Arrays.fill(mSlots, 0);
+        mElementCount = 0;
+        mItemCount = 0;
+        mStringCount = 0;
+        mCursorParent = NONE;
+    }
+
+    void writeTo(int root, AmlPullWriterFactory writer) throws AmlPullWriterException
+    {
+        // The tree is walked by its links, without recursion, so the depth of document is not limited by the stack.
+        int node = root;
+        while (true) {
+            for (int item = mFirstItems[node]; item != NONE; item = mItemNexts[item])
+            {
+                if (mItemNames[item] == NONE) writer.writeComment(mBytes, mOffsets[mItemValues[item]], length(mItemValues[item]));
+            }
+
+            int name = mNames[node];
+            writer.writeStartTag(mBytes, mOffsets[name], length(name));
+            for (int item = mFirstItems[node]; item != NONE; item = mItemNexts[item])
+            {
+                name = mItemNames[item];
+                int value = mItemValues[item];
+                if (name != NONE) writer.writeAttribute(mBytes, mOffsets[name], length(name), mOffsets[value], length(value));
+            }
+
+            if (mFirstChildren[node] != NONE)
+            {
+                node = mFirstChildren[node];
+                continue;
+            }
+
+            while (true) {
+                writer.writeEndTag();
+                if (node == root) return;
+                if (mNextSiblings[node] != NONE)
+                {
+                    node = mNextSiblings[node];
+                    break;
+                }
+                node = mParents[node];
+            }
+        }
+    }
+
+    private void addItem(int node, int name, int value)
+    {
+        if (mItemCount == mItemNames.length)
+        {
+            int length = grow(mItemCount);
+            mItemNames = Arrays.copyOf(mItemNames, length);
+            mItemValues = Arrays.copyOf(mItemValues, length);
+            mItemNexts = Arrays.copyOf(mItemNexts, length);
+        }
+
+        int item = mItemCount++;
+        mItemNames[item] = name;
+        mItemValues[item] = value;
+        mItemNexts[item] = NONE;
+        if (mLastItems[node] == NONE) mFirstItems[node] = item;
+        else mItemNexts[mLastItems[node]] = item;
+        mLastItems[node] = item;
+    }
+
+    private int findItem(int node, boolean attribute, int index)
+    {
+        for (int item = mFirstItems[node]; item != NONE; item = mItemNexts[item])
+        {
+            if ((mItemNames[item] != NONE) == attribute && index-- == 0) return item;
+        }
+        return NONE;
+    }
+
+    private int countItems(int node, boolean attribute)
+    {
+        int count = 0;
+        for (int item = mFirstItems[node]; item != NONE; item = mItemNexts[item])
+        {
+            if ((mItemNames[item] != NONE) == attribute) count++;
+        }
+        return count;
+    }
+
+    private void removeAttributes(int node, String string)
+    {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        int name = find(bytes, AmlSymbolTable.hash(bytes, 0, bytes.length));
+        if (name == NONE) return;
+
+        int previous = NONE;
+        int item = mFirstItems[node];
+        while (item != NONE)
+        {
+            int next = mItemNexts[item];
+            if (mItemNames[item] != name) previous = item;
+            else
+            {
+                if (previous == NONE) mFirstItems[node] = next;
+                else mItemNexts[previous] = next;
+                if (mLastItems[node] == item) mLastItems[node] = previous;
+            }
+            item = next;
+        }
+    }
+
+    private void addChild(int node, int child)
+    {
+        if (mParents[child] != NONE) throw new IllegalArgumentException("Illegal element " + string(mNames[child]) + " ! It's already a child of element " + string(mNames[mParents[child]]) + ".");
+
+        // An element without children can only make a cycle with itself, the ancestors are only walked for a subtree, so a tree built from the root stays linear.
+        boolean cycle = child == node;
+        for (int parent = mParents[node]; !cycle && mFirstChildren[child] != NONE && parent != NONE; parent = mParents[parent]) cycle = parent == child;
+        if (cycle) throw new IllegalArgumentException("Illegal element " + string(mNames[child]) + " ! It can't be a child of itself or of its children.");
+
+        mParents[child] = node;
+        if (mLastChildren[node] == NONE) mFirstChildren[node] = child;
+        else mNextSiblings[mLastChildren[node]] = child;
+        mLastChildren[node] = child;
+        mChildCounts[node]++;
+    }
+
+    private int findChild(int node, int index)
+    {
+        if (index < 0 || index >= mChildCounts[node]) return NONE;
+
+        int child;
+        int i;
+        if (mCursorParent == node && mCursorIndex <= index)
+        {
+            child = mCursorNode;
+            i = mCursorIndex;
+        }
+        else
+        {
+            child = mFirstChildren[node];
+            i = 0;
+        }
+        for (; i < index; i++) child = mNextSiblings[child];
+
+        mCursorParent = node;
+        mCursorIndex = index;
+        mCursorNode = child;
+        return child;
+    }
+
+    private void removeChild(int node, int child)
+    {
+        if (mParents[child] != node) return;
+
+        int previous = NONE;
+        for (int sibling = mFirstChildren[node]; sibling != child; sibling = mNextSiblings[sibling]) previous = sibling;
+
+        if (previous == NONE) mFirstChildren[node] = mNextSiblings[child];
+        else mNextSiblings[previous] = mNextSiblings[child];
+        if (mLastChildren[node] == child) mLastChildren[node] = previous;
+        mNextSiblings[child] = NONE;
+        mParents[child] = NONE;
+        mChildCounts[node]--;
+        mCursorParent = NONE;
+    }
+
+    private int intern(String string) throws AmlPullWriterException
+    {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        int hash = AmlSymbolTable.hash(bytes, 0, bytes.length);
+        int id = find(bytes, hash);
+        if (id != NONE) return id;
+
+        int offset = mOffsets[mStringCount];
+        long end = (long) offset + bytes.length;
+        if (end > MAX_BYTES) throw new AmlPullWriterException("Document is too large. The strings of document can't exceed 2 GB.");
+        if (end > mBytes.length) mBytes = Arrays.copyOf(mBytes, (int) Math.min(Math.max(mBytes.length + ((long) mBytes.length >> 1), end), MAX_BYTES));
+        if (mStringCount == mHashes.length)
+        {
+            mHashes = Arrays.copyOf(mHashes, grow(mStringCount));
+            mOffsets = Arrays.copyOf(mOffsets, grow(mStringCount) + 1);
+        }
+
+        id = mStringCount++;
+        System.arraycopy(bytes, 0, mBytes, offset, bytes.length);
+        mOffsets[mStringCount] = offset + bytes.length;
+        mHashes[id] = hash;
+
+        int mask = mSlots.length - 1;
+        int slot = spread(hash) & mask;
+        while (mSlots[slot] != 0) slot = (slot + 1) & mask;
+        mSlots[slot] = id + 1;
+
+        if ((mStringCount << 1) > mSlots.length) growSlots();
+        return id;
+    }
+
+    private int find(byte[] bytes, int hash)
+    {
+        // Open addressing, a slot keeps the index of string plus one.
+        int mask = mSlots.length - 1;
+        int slot = spread(hash) & mask;
+        while (true) {
+            int id = mSlots[slot] - 1;
+            if (id < 0) return NONE;
+            if (mHashes[id] == hash && Arrays.equals(mBytes, mOffsets[id], mOffsets[id + 1], bytes, 0, bytes.length)) return id;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void growSlots()
+    {
+        int[] slots = new int[mSlots.length << 1];
+        int mask = slots.length - 1;
+        for (int id = 0; id < mStringCount; id++)
+        {
+            int slot = spread(mHashes[id]) & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = id + 1;
+        }
+        mSlots = slots;
+    }
+
+    private String string(int id)
+    {
+        return new String(mBytes, mOffsets[id], length(id), StandardCharsets.UTF_8);
+    }
+
+    private int length(int id)
+    {
+        return mOffsets[id + 1] - mOffsets[id];
+    }
+
+    private void growElements()
+    {
+        int length = grow(mElementCount);
+        mNames = Arrays.copyOf(mNames, length);
+        mParents = Arrays.copyOf(mParents, length);
+        mFirstChildren = Arrays.copyOf(mFirstChildren, length);
+        mLastChildren = Arrays.copyOf(mLastChildren, length);
+        mNextSiblings = Arrays.copyOf(mNextSiblings, length);
+        mChildCounts = Arrays.copyOf(mChildCounts, length);
+        mFirstItems = Arrays.copyOf(mFirstItems, length);
+        mLastItems = Arrays.copyOf(mLastItems, length);
+    }
+
+    private static int grow(int length)
+    {
+        // The arrays grow by half, the free space at end of huge document stays small.
+        return length + (length >> 1);
+    }
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * An element of document, it only keeps the index of element in the arrays of document.
+     */
+    static final class View implements AmlPullWriter.Element
+    {
+        private final AmlDocument mDocument;
+        private final int mNode;
+        private final int mGeneration;
+
+        @Override
+        public void addAttribute(String name, String value) throws AmlPullWriterException
+        {
+            if ((name == null || name.trim().isEmpty()) || value == null) throw new AmlPullWriterException("Illegal argument(s). You don't add attribute with null name or empty name or null value.");
+
+            mDocument.addItem(node(), mDocument.intern(name), mDocument.intern(value));
+        }
+
+        @Override
+        public AmlPullWriter.Attribute getAttribute(int index) throws AmlPullWriterException
+        {
+            int item = mDocument.findItem(node(), true, index);
+            if (item == NONE) throw new AmlPullWriterException("Array index out of bounds. index=" + index + " but size=" + getAttributeCount());
+            return new AmlAttribute(mDocument.string(mDocument.mItemNames[item]), mDocument.string(mDocument.mItemValues[item]));
+        }
+
+        @Override
+        public void removeAttribute(String name)
+        {
+            mDocument.removeAttributes(node(), name);
+        }
+
+        @Override
+        public void addElement(AmlPullWriter.Element element)
+        {
+            if (!(element instanceof View) || ((View) element).mDocument != mDocument) throw new IllegalArgumentException("Illegal element ! Add an element created by the same document.");
+            mDocument.addChild(node(), ((View) element).node());
+        }
+
+        @Override
+        public AmlPullWriter.Element getElement(int index) throws AmlPullWriterException
+        {
+            int child = mDocument.findChild(node(), index);
+            if (child == NONE) throw new AmlPullWriterException("Array index out of bounds. index=" + index + " but size=" + getElementCount());
+            return new View(mDocument, child);
+        }
+
+        @Override
+        public void removeElement(AmlPullWriter.Element element)
+        {
+            if (element instanceof View && ((View) element).mDocument == mDocument) mDocument.removeChild(node(), ((View) element).node());
+        }
+
+        @Override
+        public void addComment(String comment) throws AmlPullWriterException
+        {
+            if (comment == null) throw new AmlPullWriterException("Illegal argument. You don't add comment with null text.");
+
+            mDocument.addItem(node(), NONE, mDocument.intern(comment));
+        }
+
+        @Override
+        public AmlPullWriter.Comment getComment(int index) throws AmlPullWriterException
+        {
+            int item = mDocument.findItem(node(), false, index);
+            if (item == NONE) throw new AmlPullWriterException("Array index out of bounds. index=" + index + " but size=" + getCommentCount());
+            return new AmlComment(mDocument.string(mDocument.mItemValues[item]));
+        }
+
+        @Override
+        public String getName()
+        {
+            return mDocument.string(mDocument.mNames[node()]);
+        }
+
+        @Override
+        public int getElementCount()
+        {
+            return mDocument.mChildCounts[node()];
+        }
+
+        @Override
+        public int getAttributeCount()
+        {
+            return mDocument.countItems(node(), true);
+        }
+
+        @Override
+        public int getCommentCount()
+        {
+            return mDocument.countItems(node(), false);
+        }
+
+        @Override
+        public boolean equals(Object object)
+        {
+            return object instanceof View && ((View) object).mDocument == mDocument && ((View) object).mNode == mNode && ((View) object).mGeneration == mGeneration;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return mNode;
+        }
+
+        void writeTo(AmlPullWriterFactory writer) throws AmlPullWriterException
+        {
+            mDocument.writeTo(node(), writer);
+        }
+
+        private int node()
+        {
+            if (mGeneration != mDocument.mGeneration) throw new IllegalStateException("Illegal element ! The document was cleared after the element was created.");
+            return mNode;
+        }
+
+        View(AmlDocument document, int node)
+        {
+            mDocument = document;
+            mNode = node;
+            mGeneration = document.mGeneration;
+        }
+    }
+}
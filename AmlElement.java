@@ -1,6 +1,3 @@
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-
 /**
  * Créer le : vendredi 18 avril 2025
  * Auteur     : Yoann Meclot (DevMyBits)
@@ -94,23 +91,15 @@ final class AmlElement implements AmlPullWriter.Element, Evaluator.Evaluable<Str
         return mName.equals(name);
     }
 
-    public void writeTo(final OutputStream output) throws AmlPullWriterException
+    public void writeTo(final AmlPullWriterFactory writer) throws AmlPullWriterException
     {
-        try {
-            for (int i = 0; i < mComments.length(); i++) mComments.get(i).writeTo(output);
-
-            output.write(("{" + mName).getBytes(StandardCharsets.UTF_8));
-            for (int i = 0; i < mAttributes.length(); i++) mAttributes.get(i).writeTo(output);
-
-            if (mElements.isEmpty()) output.write('/');
-
-            output.write('}');
-            for (int i = 0; i < mElements.length(); i++) mElements.get(i).writeTo(output);
+        // The tokens are encoded in the buffer of writer, no string and no array of bytes is created.
+        for (int i = 0; i < mComments.length(); i++) mComments.get(i).writeTo(writer);
 
-            if (!mElements.isEmpty()) output.write("{/}".getBytes(StandardCharsets.UTF_8));
-        } catch (Exception e) {
-            throw new AmlPullWriterException(e);
-        }
+        writer.writeStartTag(mName);
+        for (int i = 0; i < mAttributes.length(); i++) mAttributes.get(i).writeTo(writer);
+        for (int i = 0; i < mElements.length(); i++) mElements.get(i).writeTo(writer);
+        writer.writeEndTag();
     }
 
     AmlElement(String name) throws AmlPullWriterException
@@ -0,0 +1,108 @@
+/**
+ * {@code AmlEvent} is an immutable copy of one parsing event, published by {@link AmlEventPublisher}.
+ * <br><br>
+ * The events are pooled by their publisher : call {@link AmlEvent#release()} when the event is no more used, so it's reused for a next event.
+ * An event not released is simply collected by the garbage collector.
+ * @since 1.2
+ * @Version 1.0
+ * @Created  : vendredi 17 octobre 2026
+ * @Author   : Yoann Meclot (DevMyBits)
+ * @E-mail   : devmybits@gmail.com
+ * @see AmlEventPublisher
+ */
+public interface AmlEvent
+{
+    /**
+     * Get the type of event.
+     *
+     * @return The type of event, like {@link AmlPullParser#getEventType()}.
+     * @since 1.2
+     */
+    int getEventType();
+
+    /**
+     * Get the depth of event.
+     *
+     * @return The depth of event, like {@link AmlPullParser#getDepth()}.
+     * @since 1.2
+     */
+    int getDepth();
+
+    /**
+     * Get the name of element.
+     *
+     * @return The name of element of {@link AmlPullParser#START_TAG} and {@link AmlPullParser#END_TAG}, else {@code null}.
+     * @since 1.2
+     */
+    String getName();
+
+    /**
+     * Get the namespace of element.
+     *
+     * @return The namespace of element of {@link AmlPullParser#START_TAG}, else {@code null}.
+     * @since 1.2
+     */
+    String getNamespace();
+
+    /**
+     * Get the text of comment.
+     *
+     * @return The text of {@link AmlPullParser#COMMENT}, else {@code null}.
+     * @since 1.2
+     */
+    String getComment();
+
+    /**
+     * Get the count of attributes.
+     *
+     * @return The count of attributes of {@link AmlPullParser#START_TAG}, else {@code 0}.
+     * @since 1.2
+     */
+    int getAttributeCount();
+
+    /**
+     * Get namespace of attribute by index.
+     *
+     * @param index The index of attribute.
+     * @return The namespace of attribute.
+     * @throws IndexOutOfBoundsException If index is out of bounds of attribute count.
+     * @since 1.2
+     */
+    String getAttributeNamespace(int index);
+
+    /**
+     * Get name of attribute by index.
+     *
+     * @param index The index of attribute.
+     * @return The name of attribute.
+     * @throws IndexOutOfBoundsException If index is out of bounds of attribute count.
+     * @since 1.2
+     */
+    String getAttributeName(int index);
+
+    /**
+     * Get value of attribute by index.
+     *
+     * @param index The index of attribute.
+     * @return The value of attribute.
+     * @throws IndexOutOfBoundsException If index is out of bounds of attribute count.
+     * @since 1.2
+     */
+    String getAttributeValue(int index);
+
+    /**
+     * Get value of attribute by name or/and namespace, like {@link AmlPullParser#getAttributeValue(String, String)}.
+     *
+     * @param namespace The namespace of attribute, or {@code null} for only use name of attribute.
+     * @param name The name of attribute.
+     * @return The value of attribute, or {@code null} if not found.
+     * @since 1.2
+     */
+    String getAttributeValue(String namespace, String name);
+
+    /**
+     * Give back the event to its publisher. The event must not be used after this call.
+     * @since 1.2
+     */
+    void release();
+}
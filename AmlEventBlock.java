@@ -0,0 +1,172 @@
+/**
+ * {@code AmlEventBlock} is a reusable block of parsing events, filled by {@link AmlPullParser#next(AmlEventBlock)} with many events in one call.
+ * <br><br>
+ * The events are stored in columns of primitive arrays, so a consumer loop reads them without call the parser for each event :
+ * <blockquote><pre>
+ *     AmlEventBlock block = AmlEventBlock.newEventBlock(1024);
+ *     int item = block.getNameId("item");
+ *     int[] types;
+ *     int count;
+ *     do {
+ *          count = parser.next(block);
+ *          types = block.getEventTypes();
+ *          int[] names = block.getNameIds();
+ *          for (int i = 0; i &lt; count; i++)
+ *          {
+ *              if (types[i] == AmlPullParser.START_TAG &amp;&amp; names[i] == item) ...
+ *          }
+ *     } while (types[count - 1] != AmlPullParser.END_DOCUMENT);
+ * </pre></blockquote>
+ * The names of elements and attributes are given by id. The id of a name asked by {@link AmlEventBlock#getNameId(String)} is same for all fills of block,
+ * the other ids are valid until the parser is given a new input, so the names of previous documents are not kept by a reused block.
+ * The values of attributes are kept as raw bytes and decoded only when {@link AmlEventBlock#getAttributeValue(int)} is called.
+ * The arrays of attributes can be reallocated by a fill, get them again after each fill.
+ * @since 1.2
+ * @Version 1.0
+ * @Created  : vendredi 17 octobre 2026
+ * @Author   : Yoann Meclot (DevMyBits)
+ * @E-mail   : devmybits@gmail.com
+ * @see AmlPullParser#next(AmlEventBlock)
+ */
+public interface AmlEventBlock
+{
+    /**
+     * Create a block of events.
+     *
+     * @param capacity The max count of events by fill.
+     * @return New instance of {@code AmlEventBlock}.
+     * @throws IllegalArgumentException If capacity is lower than 1.
+     * @since 1.2
+     */
+    static AmlEventBlock newEventBlock(int capacity)
+    {
+        return new AmlEventBlockFactory(capacity);
+    }
+
+    /**
+     * Get the count of events of last fill.
+     *
+     * @return The count of events.
+     * @since 1.2
+     */
+    int size();
+
+    /**
+     * Get the max count of events by fill.
+     *
+     * @return The capacity of block.
+     * @since 1.2
+     */
+    int capacity();
+
+    /**
+     * Get the types of events.
+     *
+     * @return The type of each event, like {@link AmlPullParser#next()}.
+     * @since 1.2
+     */
+    int[] getEventTypes();
+
+    /**
+     * Get the depths of events.
+     *
+     * @return The depth of each event, like {@link AmlPullParser#getDepth()}.
+     * @since 1.2
+     */
+    int[] getDepths();
+
+    /**
+     * Get the names of events by id.
+     *
+     * @return The name id of element of each {@link AmlPullParser#START_TAG} and {@link AmlPullParser#END_TAG}, else {@code -1}.
+     * @see AmlEventBlock#getName(int)
+     * @since 1.2
+     */
+    int[] getNameIds();
+
+    /**
+     * Get the first attribute of events.
+     *
+     * @return The index of first attribute of each {@link AmlPullParser#START_TAG} in attribute arrays.
+     * @since 1.2
+     */
+    int[] getAttributeStarts();
+
+    /**
+     * Get the count of attributes of events.
+     *
+     * @return The count of attributes of each {@link AmlPullParser#START_TAG}, else {@code 0}.
+     * @since 1.2
+     */
+    int[] getAttributeCounts();
+
+    /**
+     * Get the names of attributes by id.
+     *
+     * @return The name id of each attribute.
+     * @see AmlEventBlock#getName(int)
+     * @since 1.2
+     */
+    int[] getAttributeNameIds();
+
+    /**
+     * Get the raw bytes of attribute values, without quotes and with the escape sequences, like {@link AmlPullParser#getAttributeRawValue(int)}.
+     *
+     * @return The bytes of all values of last fill.
+     * @see AmlEventBlock#getAttributeValueOffsets()
+     * @see AmlEventBlock#getAttributeValueLengths()
+     * @since 1.2
+     */
+    byte[] getValueBytes();
+
+    /**
+     * Get the offsets of attribute values.
+     *
+     * @return The offset of each value in {@link AmlEventBlock#getValueBytes()}.
+     * @since 1.2
+     */
+    int[] getAttributeValueOffsets();
+
+    /**
+     * Get the lengths of attribute values.
+     *
+     * @return The count of raw bytes of each value.
+     * @since 1.2
+     */
+    int[] getAttributeValueLengths();
+
+    /**
+     * Get the value of attribute, decoded at each call.
+     *
+     * @param attribute The index of attribute in attribute arrays.
+     * @return The value of attribute or {@code null} if index is out of attributes of last fill.
+     * @since 1.2
+     */
+    String getAttributeValue(int attribute);
+
+    /**
+     * Get the texts of comments.
+     *
+     * @return The text of each {@link AmlPullParser#COMMENT}, else {@code null}.
+     * @since 1.2
+     */
+    String[] getComments();
+
+    /**
+     * Get the name by its id.
+     *
+     * @param nameId The id of name.
+     * @return The name of element or attribute.
+     * @since 1.2
+     */
+    String getName(int nameId);
+
+    /**
+     * Get the id of name, for compare names by integer in consumer loop.
+     *
+     * @param name The name of element or attribute.
+     * @return The id of name, same than the id given by the next fills, also for the next inputs.
+     * @since 1.2
+     */
+    int getNameId(String name);
+}
@@ -0,0 +1,247 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlEventBlockFactory implements AmlEventBlock
+{
+    private final Map<String, Integer> mNameIds = new HashMap<>();
+    private final String[] mRecentNames = new String[256];
+    private final int[] mRecentIds = new int[256];
+    private final int mCapacity;
+    private final int[] mEventTypes;
+    private final int[] mDepths;
+    private final int[] mNameIdColumn;
+    private final int[] mAttributeStarts;
+    private final int[] mAttributeCounts;
+    private final String[] mComments;
+
+    private String[] mNames = new String[64];
+    private boolean[] mPinned = new boolean[64];
+    private int[] mAttributeNameIds = new int[256];
+    private int[] mValueOffsets = new int[256];
+    private int[] mValueLengths = new int[256];
+    private int[] mValueEscapes = new int[256];
+    private byte[] mValueBytes = new byte[4096];
+    private char[] mChars = new char[64];
+    private int mNameCount;
+    private int mSize;
+    private int mAttributeSize;
+    private int mValueSize;
+    private AmlPullParser mParser;
+    private int mInput;
+
+    @Override
+    public int size()
+    {
+        return mSize;
+    }
+
+    @Override
+    public int capacity()
+    {
+        return mCapacity;
+    }
+
+    @Override
+    public int[] getEventTypes()
+    {
+        return mEventTypes;
+    }
+
+    @Override
+    public int[] getDepths()
+    {
+        return mDepths;
+    }
+
+    @Override
+    public int[] getNameIds()
+    {
+        return mNameIdColumn;
+    }
+
+    @Override
+    public int[] getAttributeStarts()
+    {
+        return mAttributeStarts;
+    }
+
+    @Override
+    public int[] getAttributeCounts()
+    {
+        return mAttributeCounts;
+    }
+
+    @Override
+    public int[] getAttributeNameIds()
+    {
+        return mAttributeNameIds;
+    }
+
+    @Override
+    public byte[] getValueBytes()
+    {
+        return mValueBytes;
+    }
+
+    @Override
+    public int[] getAttributeValueOffsets()
+    {
+        return mValueOffsets;
+    }
+
+    @Override
+    public int[] getAttributeValueLengths()
+    {
+        return mValueLengths;
+    }
+
+    @Override
+    public String getAttributeValue(int attribute)
+    {
+        if (attribute < 0 || attribute >= mAttributeSize) return null;
+
+        int length = mValueLengths[attribute];
+        if (mChars.length < length) mChars = new char[length];
+        return AmlPullParserFactory.decodeValue(mValueBytes, mValueOffsets[attribute], length, mValueEscapes[attribute] != 0, mChars);
+    }
+
+    @Override
+    public String[] getComments()
+    {
+        return mComments;
+    }
+
+    @Override
+    public String getName(int nameId)
+    {
+        if (nameId < 0 || nameId >= mNameCount) return null;
+        return mNames[nameId];
+    }
+
+    @Override
+    public int getNameId(String name)
+    {
+        // The names asked by consumer keep their id for all the inputs.
+        int nameId = register(name);
+        mPinned[nameId] = true;
+        return nameId;
+    }
+
+    boolean isFull()
+    {
+        return mSize == mCapacity;
+    }
+
+    void clear(AmlPullParser parser, int input)
+    {
+        // The comments of last fill are released, the names are kept for their ids while the fills read the same input.
+        Arrays.fill(mComments, 0, mSize, null);
+        mSize = 0;
+        mAttributeSize = 0;
+        mValueSize = 0;
+        if (parser == mParser && input == mInput) return;
+
+        mParser = parser;
+        mInput = input;
+        clearNames();
+    }
+
+    void add(int eventType, int depth, String name, String comment)
+    {
+        mEventTypes[mSize] = eventType;
+        mDepths[mSize] = depth;
+        mNameIdColumn[mSize] = name == null ? -1 : nameIdOf(name);
+        mAttributeStarts[mSize] = mAttributeSize;
+        mAttributeCounts[mSize] = 0;
+        mComments[mSize] = comment;
+        mSize++;
+    }
+
+    void addAttribute(String name, ByteBuffer source, int offset, int length, boolean escaped)
+    {
+        if (mAttributeSize == mAttributeNameIds.length)
+        {
+            int size = mAttributeSize << 1;
+            mAttributeNameIds = Arrays.copyOf(mAttributeNameIds, size);
+            mValueOffsets = Arrays.copyOf(mValueOffsets, size);
+            mValueLengths = Arrays.copyOf(mValueLengths, size);
+            mValueEscapes = Arrays.copyOf(mValueEscapes, size);
+        }
+        if (mValueSize + length > mValueBytes.length) mValueBytes = Arrays.copyOf(mValueBytes, Math.max(mValueBytes.length << 1, mValueSize + length));
+
+        // Only the raw bytes are copied, the value is decoded when it's asked.
+        source.get(offset, mValueBytes, mValueSize, length);
+        mAttributeNameIds[mAttributeSize] = nameIdOf(name);
+        mValueOffsets[mAttributeSize] = mValueSize;
+        mValueLengths[mAttributeSize] = length;
+        mValueEscapes[mAttributeSize++] = escaped ? 1 : 0;
+        mValueSize += length;
+        mAttributeCounts[mSize - 1]++;
+    }
+
+    private int nameIdOf(String name)
+    {
+        // The interned names of parser are found by identity, without compare their characters.
+        int slot = name.hashCode() & (mRecentNames.length - 1);
+        if (mRecentNames[slot] == name) return mRecentIds[slot];
+
+        int nameId = register(name);
+        mRecentNames[slot] = name;
+        mRecentIds[slot] = nameId;
+        return nameId;
+    }
+
+    private int register(String name)
+    {
+        Integer nameId = mNameIds.get(name);
+        if (nameId != null) return nameId;
+
+        if (mNameCount == mNames.length)
+        {
+            mNames = Arrays.copyOf(mNames, mNameCount << 1);
+            mPinned = Arrays.copyOf(mPinned, mNameCount << 1);
+        }
+        mNames[mNameCount] = name;
+        mNameIds.put(name, mNameCount);
+        return mNameCount++;
+    }
+
+    private void clearNames()
+    {
+        // The names of previous input are forgotten, so the table don't grow with the documents. The names asked by consumer keep their id.
+        mNameIds.clear();
+        Arrays.fill(mRecentNames, null);
+        int count = 0;
+        for (int nameId = 0; nameId < mNameCount; nameId++)
+        {
+            if (!mPinned[nameId])
+            {
+                mNames[nameId] = null;
+                continue;
+            }
+            mNameIds.put(mNames[nameId], nameId);
+            count = nameId + 1;
+        }
+        mNameCount = count;
+    }
+
+    AmlEventBlockFactory(int capacity)
+    {
+        if (capacity < 1) throw new IllegalArgumentException("Illegal capacity " + capacity + " ! Provide a capacity greater than 0.");
+
+        mCapacity = capacity;
+        mEventTypes = new int[capacity];
+        mDepths = new int[capacity];
+        mNameIdColumn = new int[capacity];
+        mAttributeStarts = new int[capacity];
+        mAttributeCounts = new int[capacity];
+        mComments = new String[capacity];
+    }
+}
@@ -0,0 +1,134 @@
+import java.util.Arrays;
+import java.util.Queue;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlEventFactory implements AmlEvent
+{
+    private final Queue<AmlEventFactory> mPool;
+
+    private String[] mAttributes = new String[12];
+    private int mEventType;
+    private int mDepth;
+    private String mName;
+    private String mNamespace;
+    private String mComment;
+    private int mAttributeCount;
+    private boolean mReleased;
+
+    @Override
+    public int getEventType()
+    {
+        return mEventType;
+    }
+
+    @Override
+    public int getDepth()
+    {
+        return mDepth;
+    }
+
+    @Override
+    public String getName()
+    {
+        return mName;
+    }
+
+    @Override
+    public String getNamespace()
+    {
+        return mNamespace;
+    }
+
+    @Override
+    public String getComment()
+    {
+        return mComment;
+    }
+
+    @Override
+    public int getAttributeCount()
+    {
+        return mAttributeCount;
+    }
+
+    @Override
+    public String getAttributeNamespace(int index)
+    {
+        return mAttributes[checkIndex(index) * 3];
+    }
+
+    @Override
+    public String getAttributeName(int index)
+    {
+        return mAttributes[(checkIndex(index) * 3) + 1];
+    }
+
+    @Override
+    public String getAttributeValue(int index)
+    {
+        return mAttributes[(checkIndex(index) * 3) + 2];
+    }
+
+    @Override
+    public String getAttributeValue(String namespace, String name)
+    {
+        for (int i = 0; i < mAttributeCount * 3; i += 3)
+        {
+            if (!mAttributes[i + 1].equals(name)) continue;
+            if (namespace == null || namespace.equals(mAttributes[i])) return mAttributes[i + 2];
+        }
+        return null;
+    }
+
+    @Override
+    public void release()
+    {
+        if (mReleased) return;
+        mReleased = true;
+
+        // The strings are released, so a pooled event don't keep the document in memory.
+        Arrays.fill(mAttributes, 0, mAttributeCount * 3, null);
+        mName = null;
+        mNamespace = null;
+        mComment = null;
+        mPool.offer(this);
+    }
+
+    /**
+     * Copy the current event of parser.
+     */
+    AmlEventFactory copy(AmlPullParser parser) throws AmlPullParserException
+    {
+        mReleased = false;
+        mEventType = parser.getEventType();
+        mDepth = parser.getDepth();
+        mComment = mEventType == AmlPullParser.COMMENT ? parser.getComment() : null;
+        mName = mEventType == AmlPullParser.START_TAG || mEventType == AmlPullParser.END_TAG ? parser.getName() : null;
+        mNamespace = mEventType == AmlPullParser.START_TAG ? parser.getNamespace() : null;
+        mAttributeCount = mEventType == AmlPullParser.START_TAG ? parser.getAttributeCount() : 0;
+
+        if (mAttributes.length < mAttributeCount * 3) mAttributes = new String[mAttributeCount * 3];
+        for (int i = 0; i < mAttributeCount; i++)
+        {
+            mAttributes[i * 3] = parser.getAttributeNamespace(i);
+            mAttributes[(i * 3) + 1] = parser.getAttributeName(i);
+            mAttributes[(i * 3) + 2] = parser.getAttributeValue(i);
+        }
+        return this;
+    }
+
+    private int checkIndex(int index)
+    {
+        if (index < 0 || index >= mAttributeCount) throw new IndexOutOfBoundsException("Array index out of bounds. index=" + index + " but size=" + mAttributeCount);
+        return index;
+    }
+
+    AmlEventFactory(Queue<AmlEventFactory> pool)
+    {
+        mPool = pool;
+    }
+}
@@ -0,0 +1,45 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+/**
+ * {@code AmlEventPublisher} is a {@link Flow.Publisher} of the events of one AML document, read by an {@link AmlPullParser}.
+ * <br><br>
+ * The parser reads a next event only when the subscriber requests it, so a slow subscriber never makes the events buffered.
+ * The parsing runs on the executor, and at most one task of publisher is running at a time.
+ * <br><br>
+ * This is an example to use this publisher :
+ * <blockquote><pre>
+ *     AmlPullParser parser = AmlPullParser.newPullParser();
+ *     parser.setInput(socket.getInputStream());
+ *
+ *     AmlEventPublisher publisher = AmlEventPublisher.newPublisher(parser, Executors.newVirtualThreadPerTaskExecutor());
+ *     publisher.subscribe(mySubscriber);
+ * </pre></blockquote>
+ * With an executor of virtual threads, a parser blocked on its input don't hold a platform thread, so many documents can be published at once.
+ * <br><br>
+ * The published events are pooled, the subscriber calls {@link AmlEvent#release()} when it's done with an event.
+ * The last event is {@link AmlPullParser#END_DOCUMENT}, followed by {@link Flow.Subscriber#onComplete()}.
+ * The input of parser is closed when the publishing ends, or when the subscription is cancelled.
+ * A publisher has only one document, so it accepts only one subscriber.
+ * @since 1.2
+ * @Version 1.0
+ * @Created  : vendredi 17 octobre 2026
+ * @Author   : Yoann Meclot (DevMyBits)
+ * @E-mail   : devmybits@gmail.com
+ * @see AmlEvent
+ */
+public interface AmlEventPublisher extends Flow.Publisher<AmlEvent>
+{
+    /**
+     * Create a publisher of events of parser.
+     *
+     * @param parser The parser with input already set. It's owned by the publisher until the publishing ends.
+     * @param executor The executor running the parsing.
+     * @return New instance of {@code AmlEventPublisher}.
+     * @since 1.2
+     */
+    static AmlEventPublisher newPublisher(AmlPullParser parser, Executor executor)
+    {
+        return new AmlEventPublisherFactory(parser, executor);
+    }
+}
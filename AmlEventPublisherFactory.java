@@ -0,0 +1,163 @@
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlEventPublisherFactory implements AmlEventPublisher
+{
+    private static final int POOL_SIZE = 256;
+
+    private final AtomicBoolean mSubscribed = new AtomicBoolean();
+    private final AmlPullParser mParser;
+    private final Executor mExecutor;
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super AmlEvent> subscriber)
+    {
+        Objects.requireNonNull(subscriber, "Subscriber is null, provide a valid subscriber.");
+        if (!mSubscribed.compareAndSet(false, true))
+        {
+            subscriber.onSubscribe(new Flow.Subscription()
+            {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("Publisher is already subscribed, it publishes only one document."));
+            return;
+        }
+        subscriber.onSubscribe(new Subscription(subscriber));
+    }
+
+    AmlEventPublisherFactory(AmlPullParser parser, Executor executor)
+    {
+        mParser = Objects.requireNonNull(parser, "Parser is null, provide a valid parser.");
+        mExecutor = Objects.requireNonNull(executor, "Executor is null, provide a valid executor.");
+    }
+
+    private final class Subscription implements Flow.Subscription, Runnable
+    {
+        private final Queue<AmlEventFactory> mPool = new ArrayBlockingQueue<>(POOL_SIZE);
+        private final AtomicLong mRequested = new AtomicLong();
+        private final AtomicInteger mWorks = new AtomicInteger();
+        private final AtomicBoolean mDone = new AtomicBoolean();
+        private final Flow.Subscriber<? super AmlEvent> mSubscriber;
+
+        private volatile boolean mCancelled;
+        private volatile Throwable mRequestError;
+
+        @Override
+        public void request(long n)
+        {
+            if (n <= 0) mRequestError = new IllegalArgumentException("Illegal request of " + n + " events ! Request a count greater than 0.");
+            else mRequested.getAndUpdate(requested -> requested + n < 0 ? Long.MAX_VALUE : requested + n);
+            schedule();
+        }
+
+        @Override
+        public void cancel()
+        {
+            mCancelled = true;
+            schedule();
+        }
+
+        @Override
+        public void run()
+        {
+            // The works requested while running are done by this loop, so only one thread reads the parser and signals the subscriber.
+            int works = 1;
+            while (true) {
+                if (!mDone.get()) publish();
+                works = mWorks.addAndGet(-works);
+                if (works == 0) return;
+            }
+        }
+
+        private void schedule()
+        {
+            if (mWorks.getAndIncrement() != 0) return;
+            try {
+                mExecutor.execute(this);
+            } catch (RejectedExecutionException e) {
+                finish(e, true);
+            }
+        }
+
+        private void publish()
+        {
+            while (true) {
+                if (mCancelled)
+                {
+                    finish(null, false);
+                    return;
+                }
+                if (mRequestError != null)
+                {
+                    finish(mRequestError, true);
+                    return;
+                }
+
+                // The parser reads the next event only when it's requested.
+                long requested = mRequested.get();
+                if (requested == 0) return;
+
+                AmlEventFactory event;
+                int eventType;
+                try {
+                    eventType = mParser.next();
+                    if (eventType == AmlFeedParser.NEED_MORE_INPUT) throw new AmlPullParserException("Unsupported feed parser, the publisher reads a blocking input.");
+
+                    event = mPool.poll();
+                    if (event == null) event = new AmlEventFactory(mPool);
+                    event.copy(mParser);
+                } catch (Throwable e) {
+                    finish(e, true);
+                    return;
+                }
+
+                try {
+                    mSubscriber.onNext(event);
+                } catch (Throwable e) {
+                    // A failing subscriber cancels its subscription.
+                    finish(null, false);
+                    return;
+                }
+
+                if (eventType == AmlPullParser.END_DOCUMENT)
+                {
+                    finish(null, true);
+                    return;
+                }
+                if (requested != Long.MAX_VALUE) mRequested.decrementAndGet();
+            }
+        }
+
+        private void finish(Throwable error, boolean signal)
+        {
+            // The drain task and the caller thread of rejected execution can both finish, only the first one closes and signals.
+            if (!mDone.compareAndSet(false, true)) return;
+            mParser.close();
+
+            if (!signal) return;
+            if (error == null) mSubscriber.onComplete();
+            else mSubscriber.onError(error);
+        }
+
+        Subscription(Flow.Subscriber<? super AmlEvent> subscriber)
+        {
+            mSubscriber = subscriber;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+import java.nio.ByteBuffer;
+
+/**
+ * {@code AmlFeedParser} is a non-blocking {@link AmlPullParser}, the bytes of document are pushed by chunks when they arrive.
+ * <br><br>
+ * The parser never waits input : when the next token isn't entirely fed, {@link AmlFeedParser#next()} returns {@link AmlFeedParser#NEED_MORE_INPUT}
+ * and the current event is kept. One thread can so parse many documents, like the requests of all connections of a NIO server.
+ * <br><br>
+ * This is an example to use this parser :
+ * <blockquote><pre>
+ *     AmlFeedParser parser = AmlFeedParser.newFeedParser();
+ *
+ *     // On each chunk read from channel
+ *     parser.feed(chunk);
+ *     int eventType;
+ *     while ((eventType = parser.next()) != AmlFeedParser.NEED_MORE_INPUT &amp;&amp; eventType != AmlPullParser.END_DOCUMENT) {
+ *          ...
+ *     }
+ *
+ *     // When the channel is closed
+ *     parser.endOfInput();
+ * </pre></blockquote>
+ * A token is given when its bytes and the first byte of next token are fed, or when the input is ended.
+ * The events and getters are the same than {@link AmlPullParser}, except {@link AmlPullParser#skipSubtree()} which is unsupported.
+ * @since 1.2
+ * @Version 1.0
+ * @Created  : vendredi 17 octobre 2026
+ * @Author   : Yoann Meclot (DevMyBits)
+ * @E-mail   : devmybits@gmail.com
+ * @see AmlPullParser
+ */
+public interface AmlFeedParser extends AmlPullParser
+{
+    /**
+     * The next token isn't entirely fed, feed more bytes or end the input before call {@link AmlFeedParser#next()} again.
+     * The current event and its values are kept.
+     * @see AmlFeedParser#feed(ByteBuffer)
+     * @see AmlFeedParser#endOfInput()
+     */
+    int NEED_MORE_INPUT = 5;
+
+    /**
+     * Create instance of non-blocking AML parser.
+     *
+     * @return New instance of {@code AmlFeedParser}.
+     * @since 1.2
+     */
+    static AmlFeedParser newFeedParser()
+    {
+        return new AmlFeedParserFactory();
+    }
+
+    /**
+     * Feed the next bytes of document. The remaining bytes of {@code input} are copied, so the buffer can be reused after this call.
+     *
+     * @param input The next bytes of document, from its position to its limit.
+     * @throws AmlPullParserException If the input is already ended.
+     * @since 1.2
+     */
+    void feed(ByteBuffer input) throws AmlPullParserException;
+
+    /**
+     * End the input, the bytes fed until now are the entire document. {@link AmlFeedParser#next()} never returns {@link AmlFeedParser#NEED_MORE_INPUT} after this call.
+     * <br>
+     * Call {@link AmlPullParser#clear()} for parse a new document.
+     * @since 1.2
+     */
+    void endOfInput();
+
+    /**
+     * Go to the next token of AML document, if it's entirely fed.
+     *
+     * @return Next token type of AML document, or {@link AmlFeedParser#NEED_MORE_INPUT} if the next token isn't entirely fed.
+     * @throws AmlPullParserException If serval errors is occurred on parsing AML document.
+     * @see AmlFeedParser#NEED_MORE_INPUT
+     * @since 1.2
+     */
+    @Override
+    int next() throws AmlPullParserException;
+
+    /**
+     * Feed the entire document, like {@link AmlFeedParser#feed(ByteBuffer)} then {@link AmlFeedParser#endOfInput()} on a cleared parser.
+     *
+     * @param input The AML document.
+     * @since 1.2
+     */
+    @Override
+    void setInput(ByteBuffer input);
+}
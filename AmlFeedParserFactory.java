@@ -0,0 +1,179 @@
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlFeedParserFactory extends AmlPullParserFactory implements AmlFeedParser
+{
+    private byte[] mData = new byte[8192];
+    private ByteBuffer mDataWindow = ByteBuffer.wrap(mData);
+    private int[] mStarts = new int[64];
+    private int mStartHead;
+    private int mStartCount;
+    private int mEnd;
+    private int mScanned;
+    private int mShift;
+    private int mScan = AmlTagScanner.CONTENT;
+    private boolean mEnded;
+    private boolean mLastWindow;
+
+    @Override
+    public void feed(ByteBuffer input) throws AmlPullParserException
+    {
+        if (mEnded) throw new AmlPullParserException("Input is ended, clear the parser before feed a new document.");
+        append(input);
+    }
+
+    @Override
+    public void endOfInput()
+    {
+        mEnded = true;
+    }
+
+    @Override
+    public int next() throws AmlPullParserException
+    {
+        if (!mLastWindow && !hasEndingTag())
+        {
+            // The bytes dropped by compact are removed from cursor index of parser only by the next window.
+            int cursor = getCursorIndex() - mShift;
+
+            // The token at cursor is complete when the start of next token is scanned, else the parser would read out of fed bytes.
+            int start = cursor < 0 ? 0 : cursor;
+            while (mStartCount > 0 && mStarts[mStartHead] <= start)
+            {
+                mStartHead++;
+                mStartCount--;
+            }
+
+            int max;
+            if (mStartCount > 0) max = mStarts[mStartHead] + 1;
+            else if (mEnded)
+            {
+                max = mEnd;
+                mLastWindow = true;
+            }
+            else return NEED_MORE_INPUT;
+
+            // The values of current event are read in the bytes until the next window, so the bytes are only moved when the window is given.
+            if (cursor >= (mData.length >> 1))
+            {
+                compact(cursor);
+                max -= cursor;
+            }
+            setWindow(mDataWindow, mShift, max);
+            mShift = 0;
+        }
+        return super.next();
+    }
+
+    @Override
+    public void skipSubtree() throws AmlPullParserException
+    {
+        throw new AmlPullParserException("Unsupported skip subtree, the subtree can be not entirely fed. Read its events with next().");
+    }
+
+    @Override
+    public void setInput(InputStream input) throws AmlPullParserException
+    {
+        throw unsupportedInput();
+    }
+
+    @Override
+    public void setInput(ByteBuffer input)
+    {
+        clear();
+        append(input);
+        endOfInput();
+    }
+
+    @Override
+    public void setInput(FileChannel input) throws AmlPullParserException
+    {
+        throw unsupportedInput();
+    }
+
+    @Override
+    public void setInput(Path input) throws AmlPullParserException
+    {
+        throw unsupportedInput();
+    }
+
+    @Override
+    public void clear()
+    {
+        super.clear();
+        mStartHead = 0;
+        mStartCount = 0;
+        mEnd = 0;
+        mScanned = 0;
+        mShift = 0;
+        mScan = AmlTagScanner.CONTENT;
+        mEnded = false;
+        mLastWindow = false;
+    }
+
+    private void append(ByteBuffer input)
+    {
+        // A bigger array is allocated instead of move the bytes, because the values of current event can be not decoded yet.
+        int length = input.remaining();
+        if (mEnd + length > mData.length)
+        {
+            byte[] data = new byte[Math.max(mData.length << 1, mEnd + length)];
+            System.arraycopy(mData, 0, data, 0, mEnd);
+            mData = data;
+            mDataWindow = ByteBuffer.wrap(data);
+        }
+        input.get(mData, mEnd, length);
+        mEnd += length;
+        scan();
+    }
+
+    private void compact(int cursor)
+    {
+        // The previous event is done, so the bytes before cursor are dropped.
+        System.arraycopy(mData, cursor, mData, 0, mEnd - cursor);
+        mEnd -= cursor;
+        mScanned -= cursor;
+        mShift += cursor;
+        for (int i = mStartHead; i < mStartHead + mStartCount; i++) mStarts[i - mStartHead] = mStarts[i] - cursor;
+        mStartHead = 0;
+    }
+
+    private void scan()
+    {
+        // Only the bounds of tokens are found here, the parser checks the syntax when it reads them.
+        int scan = mScan;
+        for (int i = mScanned; i < mEnd; i++)
+        {
+            scan = AmlTagScanner.next(scan, mData[i]);
+            if ((scan & AmlTagScanner.EVENT) == AmlTagScanner.TOKEN) addStart(i);
+        }
+        mScan = scan;
+        mScanned = mEnd;
+    }
+
+    private void addStart(int index)
+    {
+        if (mStartHead + mStartCount == mStarts.length)
+        {
+            int[] starts = mStartCount < (mStarts.length >> 1) ? mStarts : new int[mStarts.length << 1];
+            System.arraycopy(mStarts, mStartHead, starts, 0, mStartCount);
+            mStarts = starts;
+            mStartHead = 0;
+        }
+        mStarts[mStartHead + mStartCount++] = index;
+    }
+
+    private static AmlPullParserException unsupportedInput()
+    {
+        return new AmlPullParserException("Unsupported input, feed the bytes with feed(ByteBuffer).");
+    }
+
+    AmlFeedParserFactory() {}
+}
@@ -0,0 +1,97 @@
+import java.nio.file.Path;
+
+/**
+ * {@code AmlIndex} is a persistent index of huge Atao Markup Language file, for seek an element without parse the file from start.
+ * <br><br>
+ * The index maps the path of elements, like {@code /catalog/book}, and the values of key attributes to the offset and depth of elements.
+ * It is saved next to the file, in sidecar file with {@code .idx} extension, and loaded again while the size and the last modified time of file don't change.
+ * <br><br>
+ * This is an example to use this index :
+ * <blockquote><pre>
+ *     AmlIndex index = AmlIndex.newIndex(Paths.get("export.aml"), 2, "id");
+ *     for (long offset : index.find("/catalog/book", "id", "42"))
+ *     {
+ *          AmlPullParser parser = index.newPullParser(offset);
+ *          parser.next(); // START_TAG of book, at depth 2
+ *          ...
+ *          parser.close();
+ *     }
+ * </pre></blockquote>
+ * Only the elements until {@code depth} are indexed, so the size of index is kept small for documents with millions of leaves.
+ * The paths use the qualified names of elements, like written in file.
+ * @since 1.2
+ * @Version 1.0
+ * @Created  : vendredi 17 octobre 2026
+ * @Author   : Yoann Meclot (DevMyBits)
+ * @E-mail   : devmybits@gmail.com
+ * @see AmlPullParser
+ */
+public interface AmlIndex
+{
+    /**
+     * Load the index of file from its sidecar file, or build and save it if the sidecar file is missing or outdated.
+     *
+     * @param input The path of file to be indexed.
+     * @param depth The max depth of indexed elements.
+     * @param keys The names of attributes whose values are indexed.
+     * @return The index of file.
+     * @throws AmlPullParserException If the file can't be read or indexed, or if the sidecar file can't be written.
+     * @since 1.2
+     */
+    static AmlIndex newIndex(Path input, int depth, String... keys) throws AmlPullParserException
+    {
+        return AmlIndexFactory.load(input, depth, keys);
+    }
+
+    /**
+     * Know if the index is always valid, the size and last modified time of file are same than on indexing.
+     *
+     * @return {@code true} if the file don't changed, else {@code false}.
+     * @since 1.2
+     */
+    boolean isValid();
+
+    /**
+     * Get the offsets of elements by path, in document order.
+     *
+     * @param path The path of elements, like {@code /catalog/book}.
+     * @return The offsets of elements, empty if none.
+     * @since 1.2
+     */
+    long[] find(String path);
+
+    /**
+     * Get the offsets of elements by value of key attribute, in document order.
+     *
+     * @param path The path of elements, or {@code null} for elements of any path.
+     * @param key The name of key attribute, given on indexing.
+     * @param value The value of key attribute.
+     * @return The offsets of elements, empty if none.
+     * @since 1.2
+     */
+    long[] find(String path, String key, String value);
+
+    /**
+     * Get the depth of indexed element.
+     *
+     * @param offset The offset of element.
+     * @return The depth of element, or {@code -1} if no element is indexed at this offset.
+     * @since 1.2
+     */
+    int getDepth(long offset);
+
+    /**
+     * Create a parser positioned on indexed element. The next call of {@link AmlPullParser#next()} returns the {@link AmlPullParser#START_TAG} of element.
+     * <br>
+     * The parser continues like in sequential parsing : the depth, the parent elements and their namespaces are restored,
+     * and the parsing goes on after element until the end of document.
+     * The parser owns the file, call {@link AmlPullParser#close()} after use.
+     *
+     * @param offset The offset of element.
+     * @param features The features set to {@code true} on parser.
+     * @return New parser positioned on element.
+     * @throws AmlPullParserException If the index is outdated, if no element is indexed at this offset or if the file can't be read.
+     * @since 1.2
+     */
+    AmlPullParser newPullParser(long offset, String... features) throws AmlPullParserException;
+}
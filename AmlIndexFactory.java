@@ -0,0 +1,347 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlIndexFactory implements AmlIndex
+{
+    private static final int MAGIC = 0x414D4C58; // AMLX
+    private static final int VERSION = 1;
+    private static final long[] NONE = new long[0];
+
+    private final Path mInput;
+    private final long mSize;
+    private final long mModified;
+    private final int mMaxDepth;
+    private final String[] mKeys;
+    private final List<Map<String, Integer>> mChildPaths = new ArrayList<>();
+
+    private String[] mPaths = new String[16];
+    private long[] mOffsets = new long[256];
+    private int[] mParents = new int[256];
+    private int[] mDepths = new int[256];
+    private int[] mPathIds = new int[256];
+    private int[] mKeyEntries = new int[64];
+    private int[] mKeyIds = new int[64];
+    private String[] mKeyValues = new String[64];
+    private int mPathCount;
+    private int mCount;
+    private int mKeyCount;
+
+    static AmlIndex load(Path input, int depth, String[] keys) throws AmlPullParserException
+    {
+        if (depth < 1) throw new AmlPullParserException("Illegal depth " + depth + " ! Provide a depth greater than 0.");
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(input, BasicFileAttributes.class);
+            AmlIndexFactory index = new AmlIndexFactory(input, attributes.size(), attributes.lastModifiedTime().toMillis(), depth, keys);
+
+            Path sidecar = input.resolveSibling(input.getFileName() + ".idx");
+            if (Files.isRegularFile(sidecar) && index.read(sidecar)) return index;
+
+            index.build();
+            index.write(sidecar);
+            return index;
+        } catch (IOException e) {
+            throw e instanceof AmlPullParserException ? (AmlPullParserException) e : new AmlPullParserException(e);
+        }
+    }
+
+    @Override
+    public boolean isValid()
+    {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(mInput, BasicFileAttributes.class);
+            return attributes.size() == mSize && attributes.lastModifiedTime().toMillis() == mModified;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public long[] find(String path)
+    {
+        int pathId = pathIdOf(path);
+        if (pathId < 0) return NONE;
+
+        long[] offsets = new long[8];
+        int count = 0;
+        for (int entry = 0; entry < mCount; entry++)
+        {
+            if (mPathIds[entry] != pathId) continue;
+            if (count == offsets.length) offsets = Arrays.copyOf(offsets, count << 1);
+            offsets[count++] = mOffsets[entry];
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    @Override
+    public long[] find(String path, String key, String value)
+    {
+        int keyId = Arrays.asList(mKeys).indexOf(key);
+        int pathId = path == null ? -1 : pathIdOf(path);
+        if (keyId < 0 || (path != null && pathId < 0)) return NONE;
+
+        long[] offsets = new long[8];
+        int count = 0;
+        for (int i = 0; i < mKeyCount; i++)
+        {
+            if (mKeyIds[i] != keyId || !mKeyValues[i].equals(value)) continue;
+            if (path != null && mPathIds[mKeyEntries[i]] != pathId) continue;
+            if (count == offsets.length) offsets = Arrays.copyOf(offsets, count << 1);
+            offsets[count++] = mOffsets[mKeyEntries[i]];
+        }
+        return Arrays.copyOf(offsets, count);
+    }
+
+    @Override
+    public int getDepth(long offset)
+    {
+        int entry = Arrays.binarySearch(mOffsets, 0, mCount, offset);
+        return entry < 0 ? -1 : mDepths[entry];
+    }
+
+    @Override
+    public AmlPullParser newPullParser(long offset, String... features) throws AmlPullParserException
+    {
+        if (!isValid()) throw new AmlPullParserException("Outdated index, the file " + mInput + " is changed since indexing.");
+
+        int entry = Arrays.binarySearch(mOffsets, 0, mCount, offset);
+        if (entry < 0) throw new AmlPullParserException("No element indexed at offset: " + offset);
+
+        boolean namespaces = Arrays.asList(features).contains(AmlPullParser.FEATURE_PROCESS_NAMESPACES);
+        int[] ancestors = new int[mDepths[entry] - 1];
+        for (int i = ancestors.length - 1, parent = mParents[entry]; i >= 0; i--, parent = mParents[parent]) ancestors[i] = parent;
+
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(mInput, StandardOpenOption.READ);
+
+            // The start tag of each parent is read again, for restore the element and namespace stacks of parser.
+            AmlPullParserFactory context = null;
+            for (int ancestor : ancestors)
+            {
+                AmlPullParserFactory parser = new AmlPullParserFactory();
+                parser.setFeature(AmlPullParser.FEATURE_PROCESS_NAMESPACES, namespaces);
+                parser.setInput(channel.position(mOffsets[ancestor]));
+                if (context != null) parser.inherit(context);
+                parser.next();
+                context = parser;
+            }
+
+            AmlPullParserFactory parser = new AmlPullParserFactory();
+            for (String feature : features) parser.setFeature(feature, true);
+            parser.setInput(channel.position(offset));
+            if (context != null) parser.inherit(context);
+            return parser;
+        } catch (IOException e) {
+            try {
+                if (channel != null) channel.close();
+            } catch (IOException ignored) {}
+            throw e instanceof AmlPullParserException ? (AmlPullParserException) e : new AmlPullParserException(e);
+        }
+    }
+
+    private void build() throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(mInput, StandardOpenOption.READ)) {
+            AmlPullParserFactory parser = new AmlPullParserFactory();
+            parser.setFeature(AmlPullParser.FEATURE_PROCESS_COMMENTS, true);
+            parser.setFeature(AmlPullParser.FEATURE_INTERN_NAMES, true);
+            parser.setFeature(AmlPullParser.FEATURE_LAZY_VALUES, true);
+            parser.setInput(channel);
+
+            // The elements deeper than max depth are skipped, so only the indexed elements are read.
+            int[] parents = new int[mMaxDepth + 1];
+            int eventType;
+            while ((eventType = parser.next()) != AmlPullParser.END_DOCUMENT) {
+                if (eventType != AmlPullParser.START_TAG) continue;
+
+                int depth = parser.getDepth();
+                int parent = depth > 1 ? parents[depth - 1] : -1;
+                int entry = addEntry(parser.getTagOffset(), parent, depth, pathIdOf(parent, parser.getName()));
+                for (int k = 0; k < mKeys.length; k++)
+                {
+                    String value = parser.getAttributeValue(null, mKeys[k]);
+                    if (value != null) addKey(entry, k, value);
+                }
+
+                if (depth < mMaxDepth) parents[depth] = entry;
+                else parser.skipSubtree();
+            }
+        }
+    }
+
+    private boolean read(Path sidecar) throws IOException
+    {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(sidecar)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) return false;
+            if (input.readLong() != mSize || input.readLong() != mModified || input.readInt() != mMaxDepth) return false;
+
+            int keyCount = input.readInt();
+            if (keyCount != mKeys.length) return false;
+            for (String key : mKeys) if (!key.equals(readString(input))) return false;
+
+            int pathCount = input.readInt();
+            for (int i = 0; i < pathCount; i++) addPath(readString(input));
+
+            int count = input.readInt();
+            for (int i = 0; i < count; i++)
+            {
+                long offset = input.readLong();
+                int parent = input.readInt();
+                addEntry(offset, parent, parent < 0 ? 1 : mDepths[parent] + 1, input.readInt());
+            }
+
+            int keyEntryCount = input.readInt();
+            for (int i = 0; i < keyEntryCount; i++) addKey(input.readInt(), input.readInt(), readString(input));
+            return true;
+        } catch (IOException e) {
+            // A truncated or broken sidecar file is built again.
+            mPathCount = 0;
+            mCount = 0;
+            mKeyCount = 0;
+            mChildPaths.subList(1, mChildPaths.size()).clear();
+            return false;
+        }
+    }
+
+    private void write(Path sidecar) throws IOException
+    {
+        // The sidecar file is replaced at once, so a reader never sees a partial index.
+        Path temp = sidecar.resolveSibling(sidecar.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeLong(mSize);
+            output.writeLong(mModified);
+            output.writeInt(mMaxDepth);
+
+            output.writeInt(mKeys.length);
+            for (String key : mKeys) writeString(output, key);
+
+            output.writeInt(mPathCount);
+            for (int i = 0; i < mPathCount; i++) writeString(output, mPaths[i]);
+
+            output.writeInt(mCount);
+            for (int i = 0; i < mCount; i++)
+            {
+                output.writeLong(mOffsets[i]);
+                output.writeInt(mParents[i]);
+                output.writeInt(mPathIds[i]);
+            }
+
+            output.writeInt(mKeyCount);
+            for (int i = 0; i < mKeyCount; i++)
+            {
+                output.writeInt(mKeyEntries[i]);
+                output.writeInt(mKeyIds[i]);
+                writeString(output, mKeyValues[i]);
+            }
+        }
+        Files.move(temp, sidecar, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private int pathIdOf(int parent, String name)
+    {
+        // The paths are found by parent path and name, so the path string is only created for a new path.
+        int parentPath = parent < 0 ? -1 : mPathIds[parent];
+        Map<String, Integer> children = mChildPaths.get(parentPath + 1);
+        Integer pathId = children.get(name);
+        if (pathId == null)
+        {
+            pathId = mPathCount;
+            addPath((parentPath < 0 ? "" : mPaths[parentPath]) + "/" + name);
+            children.put(name, pathId);
+        }
+        return pathId;
+    }
+
+    private int pathIdOf(String path)
+    {
+        for (int i = 0; i < mPathCount; i++) if (mPaths[i].equals(path)) return i;
+        return -1;
+    }
+
+    private void addPath(String path)
+    {
+        if (mPathCount == mPaths.length) mPaths = Arrays.copyOf(mPaths, mPathCount << 1);
+        mPaths[mPathCount++] = path;
+        mChildPaths.add(new HashMap<>());
+    }
+
+    private int addEntry(long offset, int parent, int depth, int pathId)
+    {
+        if (mCount == mOffsets.length)
+        {
+            int length = mCount << 1;
+            mOffsets = Arrays.copyOf(mOffsets, length);
+            mParents = Arrays.copyOf(mParents, length);
+            mDepths = Arrays.copyOf(mDepths, length);
+            mPathIds = Arrays.copyOf(mPathIds, length);
+        }
+        mOffsets[mCount] = offset;
+        mParents[mCount] = parent;
+        mDepths[mCount] = depth;
+        mPathIds[mCount] = pathId;
+        return mCount++;
+    }
+
+    private void addKey(int entry, int keyId, String value)
+    {
+        if (mKeyCount == mKeyEntries.length)
+        {
+            int length = mKeyCount << 1;
+            mKeyEntries = Arrays.copyOf(mKeyEntries, length);
+            mKeyIds = Arrays.copyOf(mKeyIds, length);
+            mKeyValues = Arrays.copyOf(mKeyValues, length);
+        }
+        mKeyEntries[mKeyCount] = entry;
+        mKeyIds[mKeyCount] = keyId;
+        mKeyValues[mKeyCount++] = value;
+    }
+
+    private static String readString(DataInputStream input) throws IOException
+    {
+        int length = input.readInt();
+        if (length < 0) throw new IOException("Broken string length " + length);
+
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException
+    {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private AmlIndexFactory(Path input, long size, long modified, int depth, String[] keys)
+    {
+        mInput = input;
+        mSize = size;
+        mModified = modified;
+        mMaxDepth = depth;
+        mKeys = keys.clone();
+        mChildPaths.add(new HashMap<>());
+    }
+}
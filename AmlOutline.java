@@ -0,0 +1,129 @@
+import java.nio.ByteBuffer;
+
+/**
+ * {@code AmlOutline} is the outline of an Atao Markup Language document in memory : the offsets, depth and parent of each element and comment.
+ * <br><br>
+ * An outline is updated in place after an edit of document, without parse all the document again. In the smallest element containing the edit,
+ * only the new bytes of children touched by the edit are parsed. The nodes before them are kept and the nodes after them are kept with offsets shifted by the length difference of edit.
+ * If the edit changes the structure out of these children, like an end tag removed, the parent element is parsed, until all the document if needed.
+ * The updated outline is always the same as the outline of a full parsing of new document.
+ * <br><br>
+ * This is an example to use this outline :
+ * <blockquote><pre>
+ *     AmlOutline outline = AmlOutline.parse(ByteBuffer.wrap(bytes), AmlPullParser.FEATURE_PROCESS_COMMENTS);
+ *
+ *     // The user types "abc" at offset 1024.
+ *     outline.edit(1024, 0, ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8)));
+ *     for (int i = 0; i &lt; outline.getCount(); i++)
+ *     {
+ *          if (outline.getType(i) == AmlPullParser.START_TAG) highlight(outline.getStart(i), outline.getEnd(i));
+ *     }
+ * </pre></blockquote>
+ * The nodes are numbered in document order, an edit can change the index of nodes after the edited element.
+ * If the new document is not valid, the edit throws and the outline and its document stay unchanged.
+ * @since 1.2
+ * @Version 1.0
+ * @Created  : vendredi 17 octobre 2026
+ * @Author   : Yoann Meclot (DevMyBits)
+ * @E-mail   : devmybits@gmail.com
+ * @see AmlPullParser
+ */
+public interface AmlOutline
+{
+    /**
+     * Parse the outline of document.
+     *
+     * @param document The bytes of document, from its position to its limit. The bytes are copied, the outline owns its document.
+     * @param features The features set to {@code true} on parsers, the same on each edit.
+     * @return The outline of document.
+     * @throws AmlPullParserException If the document is not valid.
+     * @since 1.2
+     */
+    static AmlOutline parse(ByteBuffer document, String... features) throws AmlPullParserException
+    {
+        return AmlOutlineFactory.parse(document, features);
+    }
+
+    /**
+     * Edit the document and update the outline.
+     *
+     * @param offset The offset of edit.
+     * @param removed The count of bytes removed at offset.
+     * @param inserted The bytes inserted at offset, from its position to its limit.
+     * @throws AmlPullParserException If the edit is out of document or if the new document is not valid.
+     * @since 1.2
+     */
+    void edit(int offset, int removed, ByteBuffer inserted) throws AmlPullParserException;
+
+    /**
+     * @return The bytes of document, in a read only buffer valid until the next edit.
+     * @since 1.2
+     */
+    ByteBuffer getDocument();
+
+    /**
+     * @return The count of elements and comments of document.
+     * @since 1.2
+     */
+    int getCount();
+
+    /**
+     * @param node The index of node.
+     * @return {@link AmlPullParser#START_TAG} for an element, or {@link AmlPullParser#COMMENT} for a comment.
+     * @since 1.2
+     */
+    int getType(int node);
+
+    /**
+     * @param node The index of node.
+     * @return The depth of node, like {@link AmlPullParser#getDepth()} on its event.
+     * @since 1.2
+     */
+    int getDepth(int node);
+
+    /**
+     * @param node The index of node.
+     * @return The index of parent element, or {@code -1} if node is at root of document.
+     * @since 1.2
+     */
+    int getParent(int node);
+
+    /**
+     * @param node The index of node.
+     * @return The offset of first character of node, '{' or '&lt;'.
+     * @since 1.2
+     */
+    int getStart(int node);
+
+    /**
+     * @param node The index of node.
+     * @return The offset after the last character of node, the end tag of element or the '&gt;' of comment. An element not closed ends with the document.
+     * @since 1.2
+     */
+    int getEnd(int node);
+
+    /**
+     * @param node The index of node.
+     * @return The name of element, or {@code null} for a comment.
+     * @since 1.2
+     */
+    String getName(int node);
+
+    /**
+     * @param node The index of node.
+     * @return The namespace of element, like {@link AmlPullParser#getNamespace()}, or {@code null} for a comment.
+     * @since 1.2
+     */
+    String getNamespace(int node);
+
+    /**
+     * Create a parser positioned on node. The next call of {@link AmlPullParser#next()} returns the event of node,
+     * with the depth, the parent elements and their namespaces restored.
+     *
+     * @param node The index of node.
+     * @return New parser positioned on node.
+     * @throws AmlPullParserException If the parent elements can't be read.
+     * @since 1.2
+     */
+    AmlPullParser newPullParser(int node) throws AmlPullParserException;
+}
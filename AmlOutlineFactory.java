@@ -0,0 +1,378 @@
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlOutlineFactory implements AmlOutline
+{
+    private final String[] mFeatures;
+    private final boolean mNamespaces;
+
+    private byte[] mDocument;
+    private int mLength;
+    private int[] mTypes;
+    private int[] mDepths;
+    private int[] mParents;
+    private int[] mStarts;
+    private int[] mContentStarts;
+    private int[] mContentEnds;
+    private int[] mEnds;
+    private String[] mNames;
+    private String[] mNamespaceUris;
+    private int mCount;
+
+    static AmlOutline parse(ByteBuffer document, String[] features) throws AmlPullParserException
+    {
+        byte[] bytes = new byte[document.remaining()];
+        document.duplicate().get(bytes);
+
+        AmlOutlineFactory outline = new AmlOutlineFactory(features, bytes, bytes.length, 256);
+        outline.read(outline.newParser(-1, ByteBuffer.wrap(bytes)), 0, true);
+        return outline;
+    }
+
+    @Override
+    public void edit(int offset, int removed, ByteBuffer inserted) throws AmlPullParserException
+    {
+        if (offset < 0 || removed < 0 || offset > mLength - removed) throw new AmlPullParserException("Illegal edit at offset " + offset + " of " + removed + " bytes ! The document has " + mLength + " bytes.");
+
+        byte[] bytes = new byte[inserted.remaining()];
+        inserted.duplicate().get(bytes);
+        int delta = bytes.length - removed;
+
+        // The children touched by the edit in the smallest element containing it are parsed again. If they don't end where expected, the structure is changed out of them and the parent level is parsed.
+        int parent = index(offset + 1, 0) - 1;
+        while (true) {
+            if (parent == -1 || (mContentStarts[parent] != -1 && mContentStarts[parent] <= offset && offset + removed <= mContentEnds[parent]))
+            {
+                if (reparse(parent, offset, removed, bytes)) return;
+                if (parent == -1) break;
+            }
+            parent = mParents[parent];
+        }
+
+        // The outline is changed only if the new document is valid.
+        byte[] document = new byte[mLength + delta];
+        System.arraycopy(mDocument, 0, document, 0, offset);
+        System.arraycopy(bytes, 0, document, offset, bytes.length);
+        System.arraycopy(mDocument, offset + removed, document, offset + bytes.length, mLength - offset - removed);
+
+        AmlOutlineFactory outline = new AmlOutlineFactory(mFeatures, document, document.length, mCount + 16);
+        outline.read(outline.newParser(-1, ByteBuffer.wrap(document)), 0, true);
+
+        mDocument = outline.mDocument;
+        mLength = outline.mLength;
+        mTypes = outline.mTypes;
+        mDepths = outline.mDepths;
+        mParents = outline.mParents;
+        mStarts = outline.mStarts;
+        mContentStarts = outline.mContentStarts;
+        mContentEnds = outline.mContentEnds;
+        mEnds = outline.mEnds;
+        mNames = outline.mNames;
+        mNamespaceUris = outline.mNamespaceUris;
+        mCount = outline.mCount;
+    }
+
+    @Override
+    public ByteBuffer getDocument()
+    {
+        return ByteBuffer.wrap(mDocument, 0, mLength).asReadOnlyBuffer();
+    }
+
+    @Override
+    public int getCount()
+    {
+        return mCount;
+    }
+
+    @Override
+    public int getType(int node)
+    {
+        return mTypes[checkIndex(node)];
+    }
+
+    @Override
+    public int getDepth(int node)
+    {
+        return mDepths[checkIndex(node)];
+    }
+
+    @Override
+    public int getParent(int node)
+    {
+        return mParents[checkIndex(node)];
+    }
+
+    @Override
+    public int getStart(int node)
+    {
+        return mStarts[checkIndex(node)];
+    }
+
+    @Override
+    public int getEnd(int node)
+    {
+        return mEnds[checkIndex(node)];
+    }
+
+    @Override
+    public String getName(int node)
+    {
+        return mNames[checkIndex(node)];
+    }
+
+    @Override
+    public String getNamespace(int node)
+    {
+        return mNamespaceUris[checkIndex(node)];
+    }
+
+    @Override
+    public AmlPullParser newPullParser(int node) throws AmlPullParserException
+    {
+        return newParser(mParents[checkIndex(node)], ByteBuffer.wrap(mDocument, 0, mLength).position(mStarts[node]));
+    }
+
+    private boolean reparse(int parent, int offset, int removed, byte[] inserted)
+    {
+        // The range goes from the start of first child touched by the edit to the end of last one, or to the bounds of content if no child is touched.
+        int end = offset + removed;
+        int first = child(parent, index(offset + 1, 0) - 1);
+        int last = first != -1 ? first : parent + 1 < mCount && mParents[parent + 1] == parent ? parent + 1 : -1;
+        while (last != -1 && mEnds[last] < end) last = sibling(last);
+
+        int from = first != -1 ? mStarts[first] : parent == -1 ? 0 : mContentStarts[parent];
+        int to = last != -1 ? mEnds[last] : parent == -1 ? mLength : mContentEnds[parent];
+
+        // Only the new bytes of range are copied and parsed, the parser must read the whole range with no element left open.
+        byte[] range = new byte[(to - from) + inserted.length - removed];
+        System.arraycopy(mDocument, from, range, 0, offset - from);
+        System.arraycopy(inserted, 0, range, offset - from, inserted.length);
+        System.arraycopy(mDocument, end, range, (offset - from) + inserted.length, to - end);
+
+        // The parser skips the white spaces after each token, except at start of document where they are not valid.
+        int skip = 0;
+        if (parent != -1 || from != 0) while (skip < range.length && isWhiteSpace(range[skip])) skip++;
+        else if (range.length == 0 && to < mLength && isWhiteSpace(mDocument[to])) return false;
+
+        AmlOutlineFactory nodes = new AmlOutlineFactory(mFeatures, range, range.length, 64);
+        try {
+            if (!nodes.read(newParser(parent, ByteBuffer.wrap(range, skip, range.length - skip)), from, parent == -1 && to == mLength)) return false;
+        } catch (AmlPullParserException e) {
+            return false;
+        }
+
+        int fromNode = index(from, 0);
+        splice(parent, fromNode, index(to, fromNode), nodes, inserted.length - removed);
+        replace(offset, removed, inserted);
+        return true;
+    }
+
+    private void replace(int offset, int removed, byte[] inserted)
+    {
+        int length = mLength + inserted.length - removed;
+        if (length > mDocument.length) mDocument = Arrays.copyOf(mDocument, Math.max(length, mDocument.length + (mDocument.length >> 1)));
+
+        System.arraycopy(mDocument, offset + removed, mDocument, offset + inserted.length, mLength - offset - removed);
+        System.arraycopy(inserted, 0, mDocument, offset, inserted.length);
+        mLength = length;
+    }
+
+    private void splice(int parent, int from, int to, AmlOutlineFactory nodes, int delta)
+    {
+        int shift = nodes.mCount - (to - from);
+        if (mCount + shift > mTypes.length) grow(mCount + shift);
+
+        // The nodes after are moved, the nodes before are unchanged except the parents of range which end later.
+        copy(this, to, to + shift, mCount - to);
+        mCount += shift;
+        copy(nodes, 0, from, nodes.mCount);
+        for (int i = from; i < from + nodes.mCount; i++) mParents[i] = mParents[i] == -1 ? parent : mParents[i] + from;
+
+        for (int ancestor = parent; ancestor != -1; ancestor = mParents[ancestor])
+        {
+            if (mContentEnds[ancestor] != -1) mContentEnds[ancestor] += delta;
+            mEnds[ancestor] += delta;
+        }
+
+        for (int i = to + shift; i < mCount; i++)
+        {
+            if (mParents[i] >= to) mParents[i] += shift;
+            mStarts[i] += delta;
+            mEnds[i] += delta;
+            if (mContentStarts[i] != -1) mContentStarts[i] += delta;
+            if (mContentEnds[i] != -1) mContentEnds[i] += delta;
+        }
+    }
+
+    private boolean read(AmlPullParserFactory parser, int base, boolean document) throws AmlPullParserException
+    {
+        // Read until the end of input, the offsets are shifted by base. Only the end of document can leave elements open.
+        int[] open = new int[16];
+        int depth = 0;
+        while (true) {
+            int start = cursor(parser);
+            int node;
+            switch (parser.next())
+            {
+                case AmlPullParser.START_TAG:
+                    node = add(AmlPullParser.START_TAG, parser.getDepth(), depth == 0 ? -1 : open[depth - 1], base + start, parser.getName(), parser.getNamespace());
+                    if (!parser.hasEndingTag()) mContentStarts[node] = base + trim(cursor(parser));
+
+                    if (depth == open.length) open = Arrays.copyOf(open, depth << 1);
+                    open[depth++] = node;
+                    break;
+                case AmlPullParser.END_TAG:
+                    if (depth == 0) return false;
+
+                    node = open[--depth];
+                    if (mContentStarts[node] != -1) mContentEnds[node] = base + start;
+                    mEnds[node] = base + trim(cursor(parser));
+                    break;
+                case AmlPullParser.COMMENT:
+                    node = add(AmlPullParser.COMMENT, parser.getDepth(), depth == 0 ? -1 : open[depth - 1], base + start, null, null);
+                    mEnds[node] = base + trim(cursor(parser));
+                    break;
+                default:
+                    // The elements not closed end with the document, they never contain an edit.
+                    if (depth > 0 && !document) return false;
+                    while (depth > 0) mEnds[open[--depth]] = base + mLength;
+                    return true;
+            }
+        }
+    }
+
+    private AmlPullParserFactory newParser(int parent, ByteBuffer input) throws AmlPullParserException
+    {
+        int count = 0;
+        for (int ancestor = parent; ancestor != -1; ancestor = mParents[ancestor]) count++;
+        int[] ancestors = new int[count];
+        for (int i = count - 1, ancestor = parent; i >= 0; i--, ancestor = mParents[ancestor]) ancestors[i] = ancestor;
+
+        // The start tag of parent and its ancestors is read again, for restore the element and namespace stacks of parser.
+        AmlPullParserFactory context = null;
+        for (int ancestor : ancestors)
+        {
+            AmlPullParserFactory parser = new AmlPullParserFactory();
+            parser.setFeature(AmlPullParser.FEATURE_PROCESS_NAMESPACES, mNamespaces);
+            parser.setInput(ByteBuffer.wrap(mDocument, mStarts[ancestor], mLength - mStarts[ancestor]));
+            if (context != null) parser.inherit(context);
+            parser.next();
+            context = parser;
+        }
+
+        AmlPullParserFactory parser = new AmlPullParserFactory();
+        for (String feature : mFeatures) parser.setFeature(feature, true);
+        parser.setInput(input);
+        if (context != null) parser.inherit(context);
+        return parser;
+    }
+
+    private int add(int type, int depth, int parent, int start, String name, String namespace)
+    {
+        if (mCount == mTypes.length) grow(mCount << 1);
+
+        mTypes[mCount] = type;
+        mDepths[mCount] = depth;
+        mParents[mCount] = parent;
+        mStarts[mCount] = start;
+        mContentStarts[mCount] = -1;
+        mContentEnds[mCount] = -1;
+        mNames[mCount] = name;
+        mNamespaceUris[mCount] = namespace;
+        return mCount++;
+    }
+
+    private void grow(int length)
+    {
+        mTypes = Arrays.copyOf(mTypes, length);
+        mDepths = Arrays.copyOf(mDepths, length);
+        mParents = Arrays.copyOf(mParents, length);
+        mStarts = Arrays.copyOf(mStarts, length);
+        mContentStarts = Arrays.copyOf(mContentStarts, length);
+        mContentEnds = Arrays.copyOf(mContentEnds, length);
+        mEnds = Arrays.copyOf(mEnds, length);
+        mNames = Arrays.copyOf(mNames, length);
+        mNamespaceUris = Arrays.copyOf(mNamespaceUris, length);
+    }
+
+    private void copy(AmlOutlineFactory source, int from, int to, int count)
+    {
+        System.arraycopy(source.mTypes, from, mTypes, to, count);
+        System.arraycopy(source.mDepths, from, mDepths, to, count);
+        System.arraycopy(source.mParents, from, mParents, to, count);
+        System.arraycopy(source.mStarts, from, mStarts, to, count);
+        System.arraycopy(source.mContentStarts, from, mContentStarts, to, count);
+        System.arraycopy(source.mContentEnds, from, mContentEnds, to, count);
+        System.arraycopy(source.mEnds, from, mEnds, to, count);
+        System.arraycopy(source.mNames, from, mNames, to, count);
+        System.arraycopy(source.mNamespaceUris, from, mNamespaceUris, to, count);
+    }
+
+    private int index(int offset, int from)
+    {
+        // The index of first node starting at or after offset.
+        int index = Arrays.binarySearch(mStarts, from, mCount, offset);
+        return index < 0 ? -index - 1 : index;
+    }
+
+    private int child(int parent, int node)
+    {
+        if (node == parent) return -1;
+        while (node != -1 && mParents[node] != parent) node = mParents[node];
+        return node;
+    }
+
+    private int sibling(int node)
+    {
+        int next = index(mEnds[node], node + 1);
+        return next < mCount && mParents[next] == mParents[node] ? next : -1;
+    }
+
+    private int cursor(AmlPullParserFactory parser)
+    {
+        int index = parser.getCursorIndex();
+        return index < 0 ? mLength : index;
+    }
+
+    private int trim(int index)
+    {
+        // The parser skips the white spaces after each token, the node ends on its last character.
+        while (index > 0 && isWhiteSpace(mDocument[index - 1])) index--;
+        return index;
+    }
+
+    private static boolean isWhiteSpace(byte b)
+    {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private int checkIndex(int node)
+    {
+        if (node < 0 || node >= mCount) throw new IndexOutOfBoundsException("Array index out of bounds. index=" + node + " but size=" + mCount);
+        return node;
+    }
+
+    AmlOutlineFactory(String[] features, byte[] document, int length, int capacity)
+    {
+        mFeatures = features.clone();
+        mNamespaces = Arrays.asList(features).contains(AmlPullParser.FEATURE_PROCESS_NAMESPACES);
+        mDocument = document;
+        mLength = length;
+
+        capacity = Math.max(capacity, 16);
+        mTypes = new int[capacity];
+        mDepths = new int[capacity];
+        mParents = new int[capacity];
+        mStarts = new int[capacity];
+        mContentStarts = new int[capacity];
+        mContentEnds = new int[capacity];
+        mEnds = new int[capacity];
+        mNames = new String[capacity];
+        mNamespaceUris = new String[capacity];
+    }
+}
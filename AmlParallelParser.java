@@ -0,0 +1,80 @@
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * {@code AmlParallelParser} is an helper class to parse huge Atao Markup Language file on many cores.
+ * <br><br>
+ * The parsing is done in two phases :
+ * <ul>
+ *     <li>A structural pre-scan of the file, aware of tags, attribute values, escaped characters and comments,
+ *     splits the children of root element into byte ranges.</li>
+ *     <li>The byte ranges are parsed concurrently on a {@link ForkJoinPool}, by pooled {@link AmlPullParser}.</li>
+ * </ul>
+ * The pre-scan and the parsing overlap, and the results are delivered in document order on the calling thread.
+ * <br><br>
+ * This is an example to use this parser :
+ * <blockquote><pre>
+ *     AmlParallelParser parser = AmlParallelParser.newParallelParser(ForkJoinPool.commonPool());
+ *     parser.parse(Paths.get("export.aml"), child -&gt; {
+ *          String name = child.getName();
+ *          child.skipSubtree();
+ *          return name;
+ *     }, name -&gt; System.out.println(name));
+ * </pre></blockquote>
+ * The handler sees each child like in sequential parsing : the depth of child is 2, and the namespaces declared by root element are defined.
+ * The line and column of {@link AmlPullParserException} thrown by the handler are relative to the start of the child.
+ * @since 1.2
+ * @Version 1.0
+ * @Created  : vendredi 17 octobre 2026
+ * @Author   : Yoann Meclot (DevMyBits)
+ * @E-mail   : devmybits@gmail.com
+ * @see AmlPullParser
+ */
+public interface AmlParallelParser
+{
+    /**
+     * Create instance of parallel AML parser.
+     *
+     * @param pool The pool running the parsing of children.
+     * @param features The features set to {@code true} on each parser given to the handler.
+     * @return New instance of {@code AmlParallelParser}.
+     * @since 1.2
+     */
+    static AmlParallelParser newParallelParser(ForkJoinPool pool, String... features)
+    {
+        return new AmlParallelParserFactory(pool, features);
+    }
+
+    /**
+     * Parse the children of root element of file.
+     *
+     * @param input The path of file to be parsed.
+     * @param handler The handler called for each child of root element, concurrently.
+     * @param consumer The consumer of handler results, called in document order on the calling thread.
+     * @param <T> The type of handler result.
+     * @throws AmlPullParserException If the file can't be read, if the structure of document is broken or if the handler fails.
+     * @since 1.2
+     */
+    <T> void parse(Path input, Handler<T> handler, Consumer<? super T> consumer) throws AmlPullParserException;
+
+    /**
+     * The {@code Handler} class read one child of root element.
+     *
+     * @param <T> The type of result.
+     * @since 1.2
+     * @Version 1.0
+     */
+    interface Handler<T>
+    {
+        /**
+         * Read one child of root element.
+         *
+         * @param parser The parser positioned on the {@link AmlPullParser#START_TAG} of child, owned by the handler until it returns.
+         * @return The result of child, delivered in document order.
+         * @throws AmlPullParserException If serval errors is occurred on parsing the child.
+         * @since 1.2
+         */
+        T handle(AmlPullParser parser) throws AmlPullParserException;
+    }
+}
@@ -0,0 +1,175 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlParallelParserFactory implements AmlParallelParser
+{
+    private static final int MAX_WINDOW = 1 << 30;
+    private static final long CHUNK_SIZE = 1 << 22;
+
+    private final ForkJoinPool mPool;
+    private final AmlPullParserPool mParsers;
+    private final String[] mFeatures;
+
+    @Override
+    public <T> void parse(Path input, Handler<T> handler, Consumer<? super T> consumer) throws AmlPullParserException
+    {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            AmlPullParserFactory root = new AmlPullParserFactory();
+            for (String feature : mFeatures) root.setFeature(feature, true);
+            root.setFeature(AmlPullParser.FEATURE_PROCESS_COMMENTS, true);
+            root.setInput(channel);
+
+            int eventType;
+            while ((eventType = root.next()) == AmlPullParser.COMMENT);
+            if (eventType != AmlPullParser.START_TAG) return;
+
+            ArrayDeque<ForkJoinTask<List<T>>> pending = new ArrayDeque<>();
+            int maxPending = mPool.getParallelism() * 4;
+
+            AtomicBoolean stopped = new AtomicBoolean();
+            try {
+                long[] ranges = new long[64];
+                int count = 0;
+                long childStart = 0;
+                long childEnd = -1;
+                long tagStart = 0;
+                int level = 0;
+                int scan = AmlTagScanner.CONTENT;
+                boolean closed = false;
+
+                long size = channel.size();
+                for (long base = 0; base < size && !closed; base += MAX_WINDOW)
+                {
+                    int length = (int) Math.min(MAX_WINDOW, size - base);
+                    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, base, length);
+                    for (int i = 0; i < length && !closed; i++)
+                    {
+                        byte b = window.get(i);
+                        scan = AmlTagScanner.next(scan, b);
+                        switch (scan & AmlTagScanner.EVENT)
+                        {
+                            case AmlTagScanner.TOKEN:
+                                tagStart = base + i;
+                                break;
+                            case AmlTagScanner.START:
+                                if (++level == 2) childStart = tagStart;
+                                break;
+                            case AmlTagScanner.EMPTY:
+                                if (level-- == 2) childEnd = base + i + 1;
+                                break;
+                            case AmlTagScanner.ILLEGAL:
+                                throw new AmlPullParserException("Expected '}' character but '" + ((char) b) + "' character is founded at offset: " + (base + i));
+                            case AmlTagScanner.END:
+                                if (level-- == 2) childEnd = base + i + 1;
+                                closed = level == 0;
+                                break;
+                            default:break;
+                        }
+
+                        if (childEnd < 0) continue;
+
+                        // A chunk groups the children of about 4 MB, so the cost of task is shared by many children.
+                        if (count == ranges.length)
+                        {
+                            long[] bigger = new long[ranges.length << 1];
+                            System.arraycopy(ranges, 0, bigger, 0, count);
+                            ranges = bigger;
+                        }
+                        ranges[count++] = childStart;
+                        ranges[count++] = childEnd;
+                        childEnd = -1;
+
+                        if (ranges[count - 1] - ranges[0] >= CHUNK_SIZE)
+                        {
+                            submit(pending, channel, ranges, count, root, handler, stopped);
+                            count = 0;
+                            deliver(pending, maxPending, consumer);
+                        }
+                    }
+                }
+                if (count > 0) submit(pending, channel, ranges, count, root, handler, stopped);
+                deliver(pending, 0, consumer);
+            } finally {
+                // The chunks in progress map the channel, so they are stopped and awaited before the channel is closed.
+                stopped.set(true);
+                for (ForkJoinTask<List<T>> task : pending) task.quietlyJoin();
+            }
+        } catch (IOException e) {
+            throw e instanceof AmlPullParserException ? (AmlPullParserException) e : new AmlPullParserException(e);
+        }
+    }
+
+    private <T> void submit(ArrayDeque<ForkJoinTask<List<T>>> pending, FileChannel channel, long[] ranges, int count, AmlPullParserFactory root, Handler<T> handler, AtomicBoolean stopped)
+    {
+        long[] chunk = new long[count];
+        System.arraycopy(ranges, 0, chunk, 0, count);
+        pending.add(mPool.submit(() -> parseChunk(channel, chunk, root, handler, stopped)));
+    }
+
+    private <T> void deliver(ArrayDeque<ForkJoinTask<List<T>>> pending, int maxPending, Consumer<? super T> consumer) throws AmlPullParserException
+    {
+        // The done chunks at head are delivered, and the calling thread waits only when too many chunks are in progress.
+        while (!pending.isEmpty() && (pending.size() > maxPending || pending.peek().isDone()))
+        {
+            try {
+                for (T result : pending.poll().get()) consumer.accept(result);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof AmlPullParserException ? (AmlPullParserException) cause : new AmlPullParserException(cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AmlPullParserException(e);
+            }
+        }
+    }
+
+    private <T> List<T> parseChunk(FileChannel channel, long[] ranges, AmlPullParserFactory root, Handler<T> handler, AtomicBoolean stopped) throws IOException
+    {
+        List<T> results = new ArrayList<>(ranges.length >> 1);
+        if (stopped.get()) return results;
+
+        long start = ranges[0];
+        long end = ranges[ranges.length - 1];
+        if (end - start > Integer.MAX_VALUE) throw new AmlPullParserException("Element too big for parallel parsing, at offset: " + start);
+
+        MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+
+        AmlPullParserFactory parser = (AmlPullParserFactory) mParsers.borrow();
+        try {
+            for (int i = 0; i < ranges.length && !stopped.get(); i += 2)
+            {
+                chunk.limit((int) (ranges[i + 1] - start)).position((int) (ranges[i] - start));
+                parser.setInput(chunk);
+                parser.inherit(root);
+                parser.next();
+                results.add(handler.handle(parser));
+            }
+        } finally {
+            mParsers.release(parser);
+        }
+        return results;
+    }
+
+    AmlParallelParserFactory(ForkJoinPool pool, String[] features)
+    {
+        mPool = pool;
+        mFeatures = features.clone();
+        mParsers = AmlPullParserPool.newPool(pool.getParallelism(), features);
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * {@code AmlPath} is a compiled path expression, for select elements of Atao Markup Language document while they stream past.
+ * <br><br>
+ * The expression is a list of steps separated by {@code /} character, from the children of current element of parser.
+ * Each step is a qualified name of element, or {@code *} for any element, followed by optional predicates on attributes :
+ * <ul>
+ *     <li>{@code [@name]} : the attribute exists.</li>
+ *     <li>{@code [@name='value']} : the attribute has this value, the value can be quoted by {@code '} or {@code "} characters.</li>
+ * </ul>
+ * This is an example to use a path :
+ * <blockquote><pre>
+ *     AmlPath path = AmlPath.compile("resource/attr[@format='enum']/enum");
+ *     parser.setInput(input);
+ *     path.select(parser, 10, p -&gt; System.out.println(p.getAttributeValue(null, "name")));
+ * </pre></blockquote>
+ * The steps only match children, so each element which don't match its step is skipped with {@link AmlPullParser#skipSubtree()}, without read its content.
+ * No event is kept, the memory used by selection don't depend on size of document.
+ * <br>
+ * When namespaces are processed, the prefix of step or of predicate is resolved in the scope of element, and a step without prefix matches the elements of default namespace.
+ * @since 1.2
+ * @Version 1.0
+ * @Created  : vendredi 17 octobre 2026
+ * @Author   : Yoann Meclot (DevMyBits)
+ * @E-mail   : devmybits@gmail.com
+ * @see AmlPullParser
+ */
+public interface AmlPath
+{
+    /**
+     * Compile a path expression.
+     *
+     * @param expression The path expression, like {@code resource/attr[@format='enum']/enum}.
+     * @return The compiled path, reusable for many selections and thread safe.
+     * @throws AmlPullParserException If the expression is malformed.
+     * @since 1.2
+     */
+    static AmlPath compile(String expression) throws AmlPullParserException
+    {
+        return new AmlPathFactory(expression);
+    }
+
+    /**
+     * Select all elements matching the path.
+     *
+     * @param parser The parser, before the first event or on the {@link AmlPullParser#START_TAG} of the element from which the path starts.
+     * @param handler The handler called for each matched element.
+     * @return The count of matched elements.
+     * @throws AmlPullParserException If serval errors is occurred on parsing or if the handler fails.
+     * @see AmlPath#select(AmlPullParser, int, Handler)
+     * @since 1.2
+     */
+    int select(AmlPullParser parser, Handler handler) throws AmlPullParserException;
+
+    /**
+     * Select the elements matching the path, until the limit is reached.
+     * <br>
+     * The selection stops at the end of element from which the path starts, or just after the handler of last element when the limit is reached.
+     *
+     * @param parser The parser, before the first event or on the {@link AmlPullParser#START_TAG} of the element from which the path starts.
+     * @param limit The max count of matched elements.
+     * @param handler The handler called for each matched element.
+     * @return The count of matched elements.
+     * @throws AmlPullParserException If serval errors is occurred on parsing or if the handler fails.
+     * @since 1.2
+     */
+    int select(AmlPullParser parser, int limit, Handler handler) throws AmlPullParserException;
+
+    /**
+     * The {@code Handler} class read one matched element.
+     *
+     * @since 1.2
+     * @Version 1.0
+     */
+    interface Handler
+    {
+        /**
+         * Read one matched element.
+         *
+         * @param parser The parser positioned on the {@link AmlPullParser#START_TAG} of element.
+         *               The handler can read the content of element, but must not read after its {@link AmlPullParser#END_TAG}.
+         *               The content not read by handler is skipped.
+         * @throws AmlPullParserException If serval errors is occurred on reading the element.
+         * @since 1.2
+         */
+        void handle(AmlPullParser parser) throws AmlPullParserException;
+    }
+}
@@ -0,0 +1,196 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlPathFactory implements AmlPath
+{
+    private static final String ANY = "*";
+
+    private final String mExpression;
+    private final Step[] mSteps;
+
+    private int mIndex;
+
+    @Override
+    public int select(AmlPullParser parser, Handler handler) throws AmlPullParserException
+    {
+        return select(parser, Integer.MAX_VALUE, handler);
+    }
+
+    @Override
+    public int select(AmlPullParser parser, int limit, Handler handler) throws AmlPullParserException
+    {
+        // The step to match is given by depth, because the elements which don't match their step are skipped.
+        int base = parser.getEventType() == AmlPullParser.END_TAG ? parser.getDepth() - 1 : parser.getDepth();
+        int count = 0;
+        if (limit <= 0) return count;
+
+        while (true) {
+            int eventType = parser.next();
+            if (eventType == AmlPullParser.END_DOCUMENT) return count;
+            if (eventType == AmlPullParser.END_TAG && parser.getDepth() == base) return count;
+            if (eventType != AmlPullParser.START_TAG) continue;
+
+            int depth = parser.getDepth();
+            int step = depth - base - 1;
+            if (!mSteps[step].matches(parser))
+            {
+                parser.skipSubtree();
+                continue;
+            }
+            if (step < mSteps.length - 1) continue;
+
+            handler.handle(parser);
+            if (++count == limit) return count;
+            finish(parser, depth);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return mExpression;
+    }
+
+    private static void finish(AmlPullParser parser, int depth) throws AmlPullParserException
+    {
+        // The content not read by handler is skipped, so the next events are the siblings of element.
+        while (true) {
+            int eventType = parser.getEventType();
+            if (eventType == AmlPullParser.END_DOCUMENT || parser.getDepth() < depth) throw new AmlPullParserException("Handler read after the end of element, it must stop on the END_TAG of element.");
+            if (eventType == AmlPullParser.END_TAG && parser.getDepth() == depth) return;
+            if (eventType == AmlPullParser.START_TAG) parser.skipSubtree();
+            else parser.next();
+        }
+    }
+
+    private Step readStep() throws AmlPullParserException
+    {
+        Step step = new Step(readName());
+        List<String> predicates = new ArrayList<>();
+        while (mIndex < mExpression.length() && mExpression.charAt(mIndex) == '[')
+        {
+            mIndex++;
+            require('@');
+            String name = readName();
+            int cut = name.indexOf(':');
+            predicates.add(name);
+            predicates.add(cut < 0 ? null : name.substring(0, cut));
+            predicates.add(name.substring(cut + 1));
+            if (mIndex < mExpression.length() && mExpression.charAt(mIndex) == '=')
+            {
+                mIndex++;
+                predicates.add(readQuoted());
+            }
+            else predicates.add(null);
+            require(']');
+        }
+        step.mPredicates = predicates.toArray(new String[0]);
+        return step;
+    }
+
+    private String readName() throws AmlPullParserException
+    {
+        int start = mIndex;
+        while (mIndex < mExpression.length() && "/[]=@'\" \t\n\r".indexOf(mExpression.charAt(mIndex)) < 0) mIndex++;
+        if (start == mIndex) throw error("name");
+        return mExpression.substring(start, mIndex);
+    }
+
+    private String readQuoted() throws AmlPullParserException
+    {
+        if (mIndex == mExpression.length()) throw error("quoted value");
+
+        char quote = mExpression.charAt(mIndex);
+        if (quote != '\'' && quote != '"') throw error("quoted value");
+
+        int end = mExpression.indexOf(quote, mIndex + 1);
+        if (end < 0) throw error("closing " + quote);
+
+        String value = mExpression.substring(mIndex + 1, end);
+        mIndex = end + 1;
+        return value;
+    }
+
+    private void require(char c) throws AmlPullParserException
+    {
+        if (mIndex == mExpression.length() || mExpression.charAt(mIndex) != c) throw error("'" + c + "'");
+        mIndex++;
+    }
+
+    private AmlPullParserException error(String expected)
+    {
+        return new AmlPullParserException("Illegal path " + mExpression + ", expected " + expected + " at index " + mIndex);
+    }
+
+    AmlPathFactory(String expression) throws AmlPullParserException
+    {
+        if (expression == null) throw new AmlPullParserException("Path expression is null, provide a valid expression.");
+        mExpression = expression;
+
+        List<Step> steps = new ArrayList<>();
+        if (expression.startsWith("/")) mIndex++;
+        while (true) {
+            steps.add(readStep());
+            if (mIndex == expression.length()) break;
+            require('/');
+        }
+        mSteps = steps.toArray(new Step[0]);
+    }
+
+    private static final class Step
+    {
+        private final String mName;
+        private final String mPrefix;
+        private final String mLocal;
+        private String[] mPredicates;
+
+        boolean matches(AmlPullParser parser) throws AmlPullParserException
+        {
+            // Without namespace processing, the namespace is empty and the name of element is the qualified name.
+            String namespace = parser.getNamespace();
+            if (namespace.isEmpty())
+            {
+                if (mName != ANY && !mName.equals(parser.getName())) return false;
+            }
+            else if (mName != ANY)
+            {
+                if (!mLocal.equals(parser.getName())) return false;
+
+                String expected = parser.getNamespace(mPrefix);
+                if (mPrefix != null && expected == AmlPullParser.NO_NAMESPACE) return false; // Undefined prefix.
+                if (!namespace.equals(expected)) return false;
+            }
+
+            for (int i = 0; i < mPredicates.length; i += 4)
+            {
+                String value = attributeValue(parser, mPredicates[i], mPredicates[i + 1], mPredicates[i + 2]);
+                if (value == null) return false;
+                if (mPredicates[i + 3] != null && !mPredicates[i + 3].equals(value)) return false;
+            }
+            return true;
+        }
+
+        private static String attributeValue(AmlPullParser parser, String name, String prefix, String local) throws AmlPullParserException
+        {
+            // The attribute without prefix has no namespace. Without namespace processing, no prefix is defined and the attribute has its qualified name.
+            if (prefix == null) return parser.getAttributeValue("", name);
+
+            String namespace = parser.getNamespace(prefix);
+            if (namespace == AmlPullParser.NO_NAMESPACE) return parser.getAttributeValue("", name);
+            return parser.getAttributeValue(namespace, local);
+        }
+
+        Step(String name)
+        {
+            int cut = name.indexOf(':');
+            mName = ANY.equals(name) ? ANY : name;
+            mPrefix = cut < 0 ? null : name.substring(0, cut);
+            mLocal = name.substring(cut + 1);
+        }
+    }
+}
@@ -1,4 +1,7 @@
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 
 /**
  * <h3>Atao Markup Language</h3> is an specifical textual format for struct data.
@@ -37,6 +40,11 @@ import java.io.InputStream;
  *     AmlPullParser parser ...;
  *     parser.setFeature(AmlPullParser.FEATURE_PROCESS_NAMESPACES, true);
  * </pre></blockquote>
+ * For compare names by identity, set {@code AmlPullParser.FEATURE_INTERN_NAMES} feature constant :
+ * <blockquote><pre>
+ *     AmlPullParser parser ...;
+ *     parser.setFeature(AmlPullParser.FEATURE_INTERN_NAMES, true);
+ * </pre></blockquote>
  * <br>
  * <h3>Supported escaped characters</h3>
  * {@code AmlPullParser} attempt to read escaped characters in attribute value.
@@ -45,8 +53,23 @@ import java.io.InputStream;
  * <blockquote><pre>
  *     " / \ b f n r t u
  * </pre></blockquote>
+ * The &#92;uXXXX escape gives one UTF-16 unit, so a supplementary character is escaped by its surrogate pair :
+ * <blockquote><pre>
+ *     {Emoji value="&#92;uD83D&#92;uDE00"/}
+ * </pre></blockquote>
+ * <br>
+ * <h3>Encoding</h3>
+ * {@code AmlPullParser} decodes names, attribute values and comments in UTF-8. Malformed sequences are replaced by U+FFFD.
+ * <br><br>
+ * For parse huge document without copy, prefer memory-mapped input :
+ * <blockquote><pre>
+ *     AmlPullParser parser = AmlPullParser.newPullParser();
+ *     parser.setInput(Paths.get("export.aml"));
+ * </pre></blockquote>
+ * Parsers are reusable, see {@link AmlPullParserPool} for share them between threads.
+ * <br><br>
  * @since 1.0
- * @Version 1.1
+ * @Version 1.2
  * @Created  : vendredi 14 février 2025
  * @Author   : Yoann Meclot (DevMyBits)
  * @E-mail   : devmybits@gmail.com
@@ -72,6 +95,41 @@ public interface AmlPullParser
      * This feature set the parser to evaluate comments in AML format.
      */
     String FEATURE_PROCESS_COMMENTS = "process-comments";
+    /**
+     * This feature set the parser to return canonical names of elements and attributes.
+     * <br>
+     * Repeated names of one input are the same {@code String} instance, so they can be compared by identity ({@code ==}).
+     * No string is created when a name is already known by the parser.
+     * The names are kept for the next inputs, until the documents gave more than 4096 different names, then the parser forgets them on its next input.
+     */
+    String FEATURE_INTERN_NAMES = "intern-names";
+    /**
+     * This feature set the parser to decode attribute values only when they are requested.
+     * <br>
+     * The parser keeps only the position of each value, and escaped characters are resolved on the first call of {@link AmlPullParser#getAttributeValue(int)}.
+     */
+    String FEATURE_LAZY_VALUES = "lazy-values";
+    /**
+     * This feature set the parser to double the size of input stream buffer when one token needs many refills, up to 4 MB.
+     * @see AmlPullParser#getFillCount()
+     */
+    String FEATURE_ADAPTIVE_BUFFER = "adaptive-buffer";
+    /**
+     * This feature set the parser to index the structure of document before parsing it.
+     * <br>
+     * A first pass records the positions of tags, attribute quotes and comments, with escaped characters resolved, testing eight bytes at once.
+     * Then the parser jumps from position to position for read attribute values, comments and {@link AmlPullParser#skipSubtree()}.
+     * The tags are still read byte after byte by {@link AmlPullParser#next()}, so the index is an accelerator of skips and long tokens :
+     * it's faster on documents skipped by subtrees or with long values and comments, but slower on full parse of small tokens, where the first pass costs more than it saves.
+     * Only {@link ByteBuffer} input and file input smaller than 1 GB are indexed.
+     */
+    String FEATURE_STRUCTURAL_INDEX = "structural-index";
+
+    /**
+     * This property define the size in bytes of buffer used to read input stream. The value is an {@link Integer}, 8192 by default.
+     * @see AmlPullParser#setProperty(String, Object)
+     */
+    String PROPERTY_BUFFER_SIZE = "buffer-size";
 
     /**
      * Constant value to define default namespace wen namespace not found.
@@ -114,6 +172,8 @@ public interface AmlPullParser
 
     /**
      * Define input stream to be parse.
+     * <br>
+     * Each {@code setInput} reset the parser and reuse its internal buffers, so one parser can parse many documents one after the other.
      *
      * @param input The input stream to be parsed.
      * @throws AmlPullParserException If input stream is close and if error is occurred in {@link java.io.IOException}.
@@ -121,6 +181,41 @@ public interface AmlPullParser
      */
     void setInput(InputStream input) throws AmlPullParserException;
 
+    /**
+     * Define buffer to be parse.
+     * <br>
+     * The bytes between position and limit of buffer are read directly, without copy and without refill.
+     * The position of buffer is not modified by the parser.
+     *
+     * @param input The heap, direct or memory-mapped buffer to be parsed.
+     * @since 1.2
+     */
+    void setInput(ByteBuffer input);
+
+    /**
+     * Define file channel to be parse.
+     * <br>
+     * The file is memory-mapped from the current position of channel until its end.
+     * Files bigger than 1 GB are mapped window after window.
+     *
+     * @param input The file channel to be parsed.
+     * @throws AmlPullParserException If error is occurred in {@link java.io.IOException}.
+     * @since 1.2
+     */
+    void setInput(FileChannel input) throws AmlPullParserException;
+
+    /**
+     * Define file to be parse.
+     * <br>
+     * The file is opened and memory-mapped, see {@link AmlPullParser#setInput(FileChannel)}.
+     * The file opened by parser is closed by {@link AmlPullParser#close()}, {@link AmlPullParser#clear()} or the next {@code setInput}.
+     *
+     * @param input The path of file to be parsed.
+     * @throws AmlPullParserException If file can't be opened or if error is occurred in {@link java.io.IOException}.
+     * @since 1.2
+     */
+    void setInput(Path input) throws AmlPullParserException;
+
     /**
      * Define feature on parser.
      *
@@ -130,17 +225,46 @@ public interface AmlPullParser
      * @since 1.0
      * @see AmlPullParser#FEATURE_PROCESS_COMMENTS
      * @see AmlPullParser#FEATURE_PROCESS_NAMESPACES
+     * @see AmlPullParser#FEATURE_INTERN_NAMES
+     * @see AmlPullParser#FEATURE_LAZY_VALUES
+     * @see AmlPullParser#FEATURE_ADAPTIVE_BUFFER
+     * @see AmlPullParser#FEATURE_STRUCTURAL_INDEX
      */
     void setFeature(String feature, boolean value) throws AmlPullParserException;
 
     /**
-     * Clear the internal buffers.
+     * Define property on parser.
+     * <br>
+     * The property is used from the next call of {@code setInput}.
+     *
+     * @param property The property type to be set.
+     * @param value The value of the property to be set.
+     * @throws AmlPullParserException If the property provided is unsupported or if the value is illegal.
+     * @since 1.2
+     * @see AmlPullParser#PROPERTY_BUFFER_SIZE
+     */
+    void setProperty(String property, Object value) throws AmlPullParserException;
+
+    /**
+     * Get the count of buffer refills since the last call of {@code setInput}.
+     * <br>
+     * Use it to tune {@link AmlPullParser#PROPERTY_BUFFER_SIZE}. For memory-mapped file, one refill is done by mapped window.
+     *
+     * @return The count of refills.
+     * @since 1.2
+     */
+    int getFillCount();
+
+    /**
+     * Clear the internal state and release the current input, without close it. Only the file opened by {@link AmlPullParser#setInput(Path)} is closed.
+     * <br>
+     * The internal buffers are kept, so the next call of {@code setInput} don't allocate them again.
      * @since 1.0
      */
     void clear();
 
     /**
-     * Close the input stream.
+     * Close the input stream or the file channel.
      * @since 1.1
      */
     void close();
@@ -159,6 +283,40 @@ public interface AmlPullParser
      */
     int next() throws AmlPullParserException;
 
+    /**
+     * Go to the next tokens of AML document, and fill the block with them.
+     * <br>
+     * The block is filled until it is full or the {@link AmlPullParser#END_DOCUMENT} is reached, the end of document is the last event of block.
+     * The {@link AmlPullParser#END_TAG} of empty element is added with its {@link AmlPullParser#START_TAG}, without go to the next token again.
+     * After the fill, the parser is on the last event of block.
+     * <br>
+     * With {@link AmlFeedParser}, the fill also stops when the next token isn't entirely fed. {@link AmlFeedParser#NEED_MORE_INPUT} is never added in block,
+     * so the count can be {@code 0} and the last event of block isn't the end of document : feed more bytes before the next fill.
+     *
+     * @param block The block to be filled, its previous events are replaced.
+     * @return The count of events in block.
+     * @throws AmlPullParserException If serval errors is occurred on parsing AML document.
+     * @see AmlEventBlock
+     * @since 1.2
+     */
+    int next(AmlEventBlock block) throws AmlPullParserException;
+
+    /**
+     * Skip all children of the current element and go to its end tag.
+     * <br>
+     * The parser only looks for tags, attribute values and comments bounds, no name and no value is read.
+     * After the call, the current token is {@link AmlPullParser#END_TAG} of the element and the depth is unchanged.
+     * <blockquote><pre>
+     *     while ((eventType = parser.next()) != AmlPullParser.END_DOCUMENT) {
+     *          if (eventType == AmlPullParser.START_TAG && !"attr".equals(parser.getName())) parser.skipSubtree();
+     *     }
+     * </pre></blockquote>
+     *
+     * @throws AmlPullParserException If the current token is not {@link AmlPullParser#START_TAG} or if end of input is reached before the end tag.
+     * @since 1.2
+     */
+    void skipSubtree() throws AmlPullParserException;
+
     /**
      * Get the current token.
      *
@@ -277,6 +435,8 @@ public interface AmlPullParser
      * Get value of attribute by name or/and namespace.
      * <br>
      * Set {@code namespace} to {@code null} for only use entire name of attribute.
+     * <br>
+     * Elements with many attributes are indexed on the first lookup, so each lookup is done in constant time.
      *
      * @param namespace The namespace of attribute.
      * @param name The name of attribute.
@@ -295,6 +455,119 @@ public interface AmlPullParser
      */
     String getAttributeValue(int index) throws AmlPullParserException;
 
+    /**
+     * Get raw value of attribute by index, without copy.
+     * <br>
+     * The bytes are the value as written in document, escaped characters are not resolved.
+     * The returned buffer is read-only and it's valid until the next call of {@link AmlPullParser#next()}.
+     *
+     * @param index The index of attribute value.
+     * @return The read-only buffer of raw attribute value.
+     * @throws AmlPullParserException If index is out of bounds of attribute count.
+     * @since 1.2
+     */
+    ByteBuffer getAttributeRawValue(int index) throws AmlPullParserException;
+
+    /**
+     * Get value of attribute by index as {@code int}.
+     * <br>
+     * A decimal integer with an optional sign, like {@code -12}. The value is parsed directly from the input bytes, without create {@code String}.
+     *
+     * @param index The index of attribute value.
+     * @return The attribute value.
+     * @throws AmlPullParserException If index is out of bounds of attribute count or if the value is not a valid integer.
+     * @since 1.2
+     */
+    int getAttributeInt(int index) throws AmlPullParserException;
+
+    /**
+     * Get value of attribute by name or/and namespace as {@code int}.
+     *
+     * @param namespace The namespace of attribute.
+     * @param name The name of attribute.
+     * @param defaultValue The value returned if the attribute is not found.
+     * @return The attribute value or {@code defaultValue}.
+     * @throws AmlPullParserException If the value is not a valid integer.
+     * @see AmlPullParser#getAttributeInt(int)
+     * @since 1.2
+     */
+    int getAttributeInt(String namespace, String name, int defaultValue) throws AmlPullParserException;
+
+    /**
+     * Get value of attribute by index as {@code long}.
+     * <br>
+     * A decimal integer with an optional sign, like {@code 1739527200000}. The value is parsed directly from the input bytes, without create {@code String}.
+     *
+     * @param index The index of attribute value.
+     * @return The attribute value.
+     * @throws AmlPullParserException If index is out of bounds of attribute count or if the value is not a valid long.
+     * @since 1.2
+     */
+    long getAttributeLong(int index) throws AmlPullParserException;
+
+    /**
+     * Get value of attribute by name or/and namespace as {@code long}.
+     *
+     * @param namespace The namespace of attribute.
+     * @param name The name of attribute.
+     * @param defaultValue The value returned if the attribute is not found.
+     * @return The attribute value or {@code defaultValue}.
+     * @throws AmlPullParserException If the value is not a valid long.
+     * @see AmlPullParser#getAttributeLong(int)
+     * @since 1.2
+     */
+    long getAttributeLong(String namespace, String name, long defaultValue) throws AmlPullParserException;
+
+    /**
+     * Get value of attribute by index as {@code double}.
+     * <br>
+     * A decimal number with an optional exponent, like {@code -0.5} or {@code 6.02e23}. The value is parsed directly from the input bytes, without create {@code String}.
+     *
+     * @param index The index of attribute value.
+     * @return The attribute value.
+     * @throws AmlPullParserException If index is out of bounds of attribute count or if the value is not a valid double.
+     * @since 1.2
+     */
+    double getAttributeDouble(int index) throws AmlPullParserException;
+
+    /**
+     * Get value of attribute by name or/and namespace as {@code double}.
+     *
+     * @param namespace The namespace of attribute.
+     * @param name The name of attribute.
+     * @param defaultValue The value returned if the attribute is not found.
+     * @return The attribute value or {@code defaultValue}.
+     * @throws AmlPullParserException If the value is not a valid double.
+     * @see AmlPullParser#getAttributeDouble(int)
+     * @since 1.2
+     */
+    double getAttributeDouble(String namespace, String name, double defaultValue) throws AmlPullParserException;
+
+    /**
+     * Get value of attribute by index as {@code boolean}.
+     * <br>
+     * {@code true} or {@code false}, case is ignored. The value is parsed directly from the input bytes, without create {@code String}.
+     *
+     * @param index The index of attribute value.
+     * @return The attribute value.
+     * @throws AmlPullParserException If index is out of bounds of attribute count or if the value is not a valid boolean.
+     * @since 1.2
+     */
+    boolean getAttributeBoolean(int index) throws AmlPullParserException;
+
+    /**
+     * Get value of attribute by name or/and namespace as {@code boolean}.
+     *
+     * @param namespace The namespace of attribute.
+     * @param name The name of attribute.
+     * @param defaultValue The value returned if the attribute is not found.
+     * @return The attribute value or {@code defaultValue}.
+     * @throws AmlPullParserException If the value is not a valid boolean.
+     * @see AmlPullParser#getAttributeBoolean(int)
+     * @since 1.2
+     */
+    boolean getAttributeBoolean(String namespace, String name, boolean defaultValue) throws AmlPullParserException;
+
     /**
      * Get name of attribute by index.
      *
@@ -1,12 +1,21 @@
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 
 /**
  * Créer le : vendredi 14 février 2025
  * Auteur   : Yoann Meclot (DevMyBits)
  * E-mail   : devmybits@gmail.com
  */
-final class AmlPullParserFactory implements AmlPullParser
+class AmlPullParserFactory implements AmlPullParser
 {
     private static String[] TYPES = {
             "START_DOCUMENT",
@@ -16,19 +25,52 @@ final class AmlPullParserFactory implements AmlPullParser
             "COMMENT"
     };
     private static final String UNEXPECTED_EOI = "Unexpected end of input";
+    private static final int MAX_WINDOW = 1 << 30;
+    private static final int INDEX_THRESHOLD = 8;
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int MAX_BUFFER_SIZE = 1 << 22;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long ASCII_MASK = 0x8080808080808080L;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
 
     private String[] mAttributes = new String[8];
+    private int[] mSpans = new int[6];
+    private ByteBuffer[] mSpanSources = new ByteBuffer[2];
+    private int[] mAttributeSlots = new int[32];
     private String[] mElementStack = new String[16];
     private String[] mNspStack = new String[8];
     private int[] mNspCounts = new int[4];
     private byte[] mTemp = new byte[16];
+    private char[] mChars = new char[16];
+    private byte[] mRaw = new byte[64];
+    private ByteBuffer mRawWindow = ByteBuffer.wrap(mRaw);
+    private final AmlSymbolTable mSymbols = new AmlSymbolTable();
+    private final AmlStructuralIndex mTape = new AmlStructuralIndex();
 
     private InputStream mInput;
+    private FileChannel mChannel;
+    private long mChannelPosition;
+    private long mChannelSize;
+    private long mTagOffset;
+    private ByteBuffer mWindow;
+    private ByteBuffer mBufferWindow;
     private byte[] mBuffer;
     private int mCursor;
     private int mIndex;
     private int mPosition;
     private int mMax;
+    private int mFills;
+    private int mNextFills;
+    private int mTapeEntry;
+    private int mTapeStart;
+    private int mTapeEnd;
+    private int mBufferSize = DEFAULT_BUFFER_SIZE;
+    private int mInitialBufferSize = DEFAULT_BUFFER_SIZE;
+    private int mRawCount;
+    private int mInputs;
     private int mEventType;
     private int mAttributeCount;
     private int mLine;
@@ -39,59 +81,141 @@ final class AmlPullParserFactory implements AmlPullParser
     private String mNamespace;
     private String mPrefix;
     private boolean mEndingTag;
+    private boolean mIndexed;
     private boolean mProcessNsp;
     private boolean mProcessCmts;
+    private boolean mInternNames;
+    private boolean mLazyValues;
+    private boolean mAdaptiveBuffer;
+    private boolean mStructuralIndex;
+    private boolean mTaped;
+    private boolean mOwnedChannel;
 
     @Override
     public void setInput(InputStream input) throws AmlPullParserException
     {
-        try {
-            int available = input.available();
-            mBuffer = new byte[(available <= 0 || available > 8192) ? 8192 : available];
-
-            mInput = input;
-            mEventType = START_DOCUMENT;
-            mLine = 0;
-            mLineOffset = 0;
-            mDepth = 0;
-            mEndingTag = false;
-            mNamespace = null;
-            mName = null;
-            mComment = null;
-            mPrefix = null;
+        if (input == null) throw new AmlPullParserException("Input stream is null, provide a valid input stream.");
+
+        // The buffer grown by adaptive mode or defined by previous property is allocated again with the initial size.
+        mBufferSize = mInitialBufferSize;
+        if (mBuffer == null || mBuffer.length != mBufferSize) allocateBuffer();
+        mWindow = mBufferWindow;
+
+        releaseChannel();
+        mInput = input;
+        mChannel = null;
+        reset(0, 0);
+        read();
+    }
 
+    @Override
+    public void setInput(ByteBuffer input)
+    {
+        releaseChannel();
+        mWindow = input;
+        mInput = null;
+        mChannel = null;
+        reset(input.position(), input.limit());
+        if (mStructuralIndex) buildTape(input.position(), input.limit());
+        read();
+    }
+
+    @Override
+    public void setInput(FileChannel input) throws AmlPullParserException
+    {
+        releaseChannel();
+        try {
+            mChannelPosition = input.position();
+            mChannelSize = input.size();
+            mWindow = null;
+            mInput = null;
+            mChannel = input;
+            reset(0, 0);
             read();
         } catch (IOException e) {
             throw new AmlPullParserException(e);
         }
     }
 
+    @Override
+    public void setInput(Path input) throws AmlPullParserException
+    {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(input, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new AmlPullParserException(e);
+        }
+
+        try {
+            setInput(channel);
+        } catch (AmlPullParserException | RuntimeException e) {
+            // The channel opened here is not given to the parser, so it's closed before the error is thrown.
+            mChannel = null;
+            try {
+                channel.close();
+            } catch (IOException ignored) {}
+            throw e;
+        }
+        mOwnedChannel = true;
+    }
+
     @Override
     public void setFeature(String feature, boolean value) throws AmlPullParserException
     {
         if (FEATURE_PROCESS_NAMESPACES.equals(feature)) mProcessNsp = value;
         else if (FEATURE_PROCESS_COMMENTS.equals(feature)) mProcessCmts = value;
+        else if (FEATURE_INTERN_NAMES.equals(feature)) mInternNames = value;
+        else if (FEATURE_LAZY_VALUES.equals(feature)) mLazyValues = value;
+        else if (FEATURE_ADAPTIVE_BUFFER.equals(feature)) mAdaptiveBuffer = value;
+        else if (FEATURE_STRUCTURAL_INDEX.equals(feature)) mStructuralIndex = value;
         else throw new AmlPullParserException("Unsupported feature " + feature + " ! Provide a valid feature.");
     }
 
+    @Override
+    public void setProperty(String property, Object value) throws AmlPullParserException
+    {
+        if (PROPERTY_BUFFER_SIZE.equals(property))
+        {
+            if (!(value instanceof Integer) || (Integer) value < 1 || (Integer) value > MAX_BUFFER_SIZE) throw new AmlPullParserException("Illegal buffer size " + value + " ! Provide an integer between 1 and " + MAX_BUFFER_SIZE + ".");
+            mInitialBufferSize = (Integer) value;
+        }
+        else throw new AmlPullParserException("Unsupported property " + property + " ! Provide a valid property.");
+    }
+
+    @Override
+    public int getFillCount()
+    {
+        return mFills;
+    }
+
     @Override
     public void clear()
     {
-        mBuffer = null;
-        mTemp = new byte[16];
+        releaseChannel();
+        mInput = null;
+        mChannel = null;
+        mWindow = null;
+        reset(0, 0);
     }
 
     @Override
     public void close()
     {
         try {
-            mInput.close();
+            if (mInput != null) mInput.close();
+            if (mChannel != null) mChannel.close();
         } catch (IOException ignored) {}
+        mOwnedChannel = false;
     }
 
     @Override
     public int next() throws AmlPullParserException
     {
+        // Many refills for only one token means the buffer is too small for this document, the next refill use a bigger one.
+        if (mAdaptiveBuffer && mFills - mNextFills > 1 && mBufferSize < MAX_BUFFER_SIZE) mBufferSize <<= 1;
+        mNextFills = mFills;
+
         if (mEventType == END_TAG) mDepth--;
         if (mEndingTag)
         {
@@ -125,6 +249,82 @@ final class AmlPullParserFactory implements AmlPullParser
         }
     }
 
+    @Override
+    public int next(AmlEventBlock block) throws AmlPullParserException
+    {
+        AmlEventBlockFactory events = (AmlEventBlockFactory) block;
+        events.clear(this, mInputs);
+
+        // The raw bytes of values are copied in block, so the parser never decodes them during the fill.
+        boolean lazyValues = mLazyValues;
+        mLazyValues = true;
+        try {
+            return fill(events);
+        } finally {
+            mLazyValues = lazyValues;
+        }
+    }
+
+    @Override
+    public void skipSubtree() throws AmlPullParserException
+    {
+        if (mEventType != START_TAG) throw error("Illegal state, skip subtree is only allowed on START_TAG but current event is " + TYPES[mEventType]);
+        if (mEndingTag)
+        {
+            mEndingTag = false;
+            mEventType = END_TAG;
+            return;
+        }
+
+        if (mTaped)
+        {
+            skipTaped();
+            return;
+        }
+
+        int level = 1;
+        int scan = AmlTagScanner.CONTENT;
+        while (true) {
+            if (isEnd()) throw error(UNEXPECTED_EOI);
+
+            int max = mMax;
+            for (int i = mIndex - 1; i < max; i++)
+            {
+                byte b = mWindow.get(i);
+                scan = AmlTagScanner.next(scan, b);
+                switch (scan & AmlTagScanner.EVENT)
+                {
+                    case AmlTagScanner.START:
+                        level++;
+                        break;
+                    case AmlTagScanner.EMPTY:
+                        level--;
+                        break;
+                    case AmlTagScanner.ILLEGAL:
+                        throw expected("'}' character but '" + ((char) b) + "' character is founded.");
+                    case AmlTagScanner.END:
+                        if (--level == 0)
+                        {
+                            moveTo(i);
+                            read();
+                            skipWhiteSpaces();
+
+                            mEventType = END_TAG;
+                            mPrefix = null;
+                            mName = null;
+                            mNamespace = null;
+                            mAttributeCount = -1;
+                            return;
+                        }
+                        break;
+                    default:break;
+                }
+                if (b == '\n' && i + 1 < max) newLine(i);
+            }
+            advance(max);
+        }
+    }
+
     @Override
     public int getEventType()
     {
@@ -207,15 +407,151 @@ final class AmlPullParserFactory implements AmlPullParser
     @Override
     public String getAttributeValue(String namespace, String name)
     {
-        for (int i = (mAttributeCount * 4) - 4; i >= 0; i -= 4) if ((mAttributes[i + 2].equals(name) && namespace == null) || mAttributes[i].equals(namespace)) return mAttributes[i + 3];
-        return null;
+        int index = indexOf(namespace, name);
+        return index < 0 ? null : value(index);
     }
 
     @Override
     public String getAttributeValue(int index) throws AmlPullParserException
     {
         if (index >= mAttributeCount) throw new AmlPullParserException("Array index out of bounds. index=" + index + " but size=" + mAttributeCount);
-        return mAttributes[(index * 4) + 3];
+        return value(index);
+    }
+
+    @Override
+    public ByteBuffer getAttributeRawValue(int index) throws AmlPullParserException
+    {
+        if (index >= mAttributeCount) throw new AmlPullParserException("Array index out of bounds. index=" + index + " but size=" + mAttributeCount);
+        return mSpanSources[index].slice(mSpans[index * 3], mSpans[(index * 3) + 1]).asReadOnlyBuffer();
+    }
+
+    @Override
+    public int getAttributeInt(int index) throws AmlPullParserException
+    {
+        if (index >= mAttributeCount) throw new AmlPullParserException("Array index out of bounds. index=" + index + " but size=" + mAttributeCount);
+
+        long value = parseLong(index, "integer");
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw illegalValue(index, "integer");
+        return (int) value;
+    }
+
+    @Override
+    public int getAttributeInt(String namespace, String name, int defaultValue) throws AmlPullParserException
+    {
+        int index = indexOf(namespace, name);
+        return index < 0 ? defaultValue : getAttributeInt(index);
+    }
+
+    @Override
+    public long getAttributeLong(int index) throws AmlPullParserException
+    {
+        if (index >= mAttributeCount) throw new AmlPullParserException("Array index out of bounds. index=" + index + " but size=" + mAttributeCount);
+        return parseLong(index, "long");
+    }
+
+    @Override
+    public long getAttributeLong(String namespace, String name, long defaultValue) throws AmlPullParserException
+    {
+        int index = indexOf(namespace, name);
+        return index < 0 ? defaultValue : getAttributeLong(index);
+    }
+
+    @Override
+    public double getAttributeDouble(int index) throws AmlPullParserException
+    {
+        if (index >= mAttributeCount) throw new AmlPullParserException("Array index out of bounds. index=" + index + " but size=" + mAttributeCount);
+
+        ByteBuffer source = mSpanSources[index];
+        int i = mSpans[index * 3];
+        int end = i + mSpans[(index * 3) + 1];
+
+        boolean negative = i < end && source.get(i) == '-';
+        if (negative || (i < end && source.get(i) == '+')) i++;
+
+        // Fast path : a mantissa of 15 digits and a power of ten up to 22 are exact doubles, so only one rounding is done.
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean any = false;
+        boolean dot = false;
+        boolean simple = mSpans[(index * 3) + 2] == 0;
+        for (; simple && i < end; i++)
+        {
+            byte b = source.get(i);
+            if (b >= '0' && b <= '9')
+            {
+                any = true;
+                if (mantissa == 0 && b == '0')
+                {
+                    if (dot) exponent--;
+                    continue;
+                }
+                if (++digits > 15) simple = false;
+                mantissa = (mantissa * 10) + (b - '0');
+                if (dot) exponent--;
+            }
+            else if (b == '.' && !dot) dot = true;
+            else if ((b == 'e' || b == 'E') && any)
+            {
+                int sign = 1;
+                int power = 0;
+                if (++i < end && (source.get(i) == '-' || source.get(i) == '+')) sign = source.get(i++) == '-' ? -1 : 1;
+                if (i == end) simple = false;
+                for (; i < end && simple; i++)
+                {
+                    int digit = source.get(i) - '0';
+                    if (digit < 0 || digit > 9 || power > 1000) simple = false;
+                    else power = (power * 10) + digit;
+                }
+                exponent += sign * power;
+                break;
+            }
+            else simple = false;
+        }
+
+        if (simple && any && exponent >= -22 && exponent <= 22)
+        {
+            double value = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+            return negative ? -value : value;
+        }
+
+        try {
+            return Double.parseDouble(value(index));
+        } catch (NumberFormatException e) {
+            throw illegalValue(index, "double");
+        }
+    }
+
+    @Override
+    public double getAttributeDouble(String namespace, String name, double defaultValue) throws AmlPullParserException
+    {
+        int index = indexOf(namespace, name);
+        return index < 0 ? defaultValue : getAttributeDouble(index);
+    }
+
+    @Override
+    public boolean getAttributeBoolean(int index) throws AmlPullParserException
+    {
+        if (index >= mAttributeCount) throw new AmlPullParserException("Array index out of bounds. index=" + index + " but size=" + mAttributeCount);
+        if (mSpans[(index * 3) + 2] == 0)
+        {
+            if (matches(index, "true")) return true;
+            if (matches(index, "false")) return false;
+        }
+        else
+        {
+            String value = value(index);
+            if (value.equalsIgnoreCase("true")) return true;
+            if (value.equalsIgnoreCase("false")) return false;
+        }
+        throw illegalValue(index, "boolean");
+    }
+
+    @Override
+    public boolean getAttributeBoolean(String namespace, String name, boolean defaultValue) throws AmlPullParserException
+    {
+        int index = indexOf(namespace, name);
+        return index < 0 ? defaultValue : getAttributeBoolean(index);
     }
 
     @Override
@@ -225,20 +561,69 @@ final class AmlPullParserFactory implements AmlPullParser
         return mAttributes[(index * 4) + 2];
     }
 
+    private void releaseChannel()
+    {
+        // Only the channel opened by setInput(Path) is closed, the channel given by user stays open.
+        if (!mOwnedChannel) return;
+
+        mOwnedChannel = false;
+        try {
+            mChannel.close();
+        } catch (IOException ignored) {}
+        mChannel = null;
+    }
+
+    private int fill(AmlEventBlockFactory events) throws AmlPullParserException
+    {
+        while (!events.isFull()) {
+            int eventType = next();
+            switch (eventType)
+            {
+                case START_TAG:
+                    events.add(START_TAG, mDepth, getName(), null);
+                    for (int i = 0; i < mAttributeCount; i++) events.addAttribute(mAttributes[(i * 4) + 2], mSpanSources[i], mSpans[i * 3], mSpans[(i * 3) + 1], mSpans[(i * 3) + 2] != 0);
+
+                    // The end of empty element is added at once, like the next call would do it.
+                    if (mEndingTag && !events.isFull())
+                    {
+                        mEndingTag = false;
+                        mEventType = END_TAG;
+                        events.add(END_TAG, mDepth, getName(), null);
+                    }
+                    break;
+                case END_TAG:
+                    events.add(END_TAG, mDepth, getName(), null);
+                    break;
+                case COMMENT:
+                    events.add(COMMENT, mDepth, null, mComment);
+                    break;
+                case START_DOCUMENT:
+                case END_DOCUMENT:
+                    events.add(eventType, mDepth, null, null);
+                    return events.size();
+                default:
+                    // The feed parser has no more fed token, the block ends before it.
+                    return events.size();
+            }
+        }
+        return events.size();
+    }
+
     private int readType() throws AmlPullParserException
     {
         if (isEnd()) return END_DOCUMENT;
         if (mCursor == '{')
         {
-            if (mIndex + 1 >= mMax) throw error("dangling {");
-            if (read() == '/') return END_TAG;
+            mTagOffset = (mChannelPosition - mMax) + (mIndex - 1);
+            if (read() == -1) throw error("dangling {");
+            if (mCursor == '/') return END_TAG;
             return START_TAG;
         }
         if (mCursor == '<')
         {
             if (!mProcessCmts) throw error("Are you set feature 'FEATURE_PROCESS_COMMENTS' to true ?");
-            if (mIndex + 1 >= mMax) throw error("dangling <");
-            if (read() == '!') return COMMENT;
+            if (read() == -1) throw error("dangling <");
+            if (mCursor == '!') return COMMENT;
         }
         throw error("Illegal type");
     }
@@ -249,6 +634,8 @@ final class AmlPullParserFactory implements AmlPullParser
 
         mName = readName();
         mAttributeCount = 0;
+        mRawCount = 0;
+        mIndexed = false;
         while (true) {
             skipWhiteSpaces();
             if (mCursor == '/')
@@ -271,6 +658,16 @@ final class AmlPullParserFactory implements AmlPullParser
             int i = (mAttributeCount++) * 4;
 
             mAttributes = updateArray(mAttributes, i + 4);
+            if (mSpanSources.length < mAttributeCount)
+            {
+                int[] spans = new int[(mAttributeCount + 8) * 3];
+                System.arraycopy(mSpans, 0, spans, 0, mSpans.length);
+                mSpans = spans;
+
+                ByteBuffer[] sources = new ByteBuffer[mAttributeCount + 8];
+                System.arraycopy(mSpanSources, 0, sources, 0, mSpanSources.length);
+                mSpanSources = sources;
+            }
             mAttributes[i] = "";
             mAttributes[i + 1] = null;
             mAttributes[i + 2] = attribute;
@@ -285,7 +682,8 @@ final class AmlPullParserFactory implements AmlPullParser
                 if (isEnd()) throw error(UNEXPECTED_EOI);
 
                 require('"');
-                mAttributes[i + 3] = readValue();
+                readValue(mAttributeCount - 1);
+                mAttributes[i + 3] = mLazyValues ? null : decodeValue(mAttributeCount - 1);
                 read();
             }
         }
@@ -324,96 +722,302 @@ final class AmlPullParserFactory implements AmlPullParser
     private void readComment() throws AmlPullParserException
     {
         int count = 0;
-        while (true) {
-            read();
+        read();
+        if (mTaped && !isEnd())
+        {
+            // The tape gives the '>' of comment end, the text ends before its '!'.
+            int from = mIndex - 1;
+            mTapeEntry = mTape.find(mTapeEntry, from);
+            if (mTapeEntry == mTape.length()) throw endOfTape();
+
+            int end = mTape.get(mTapeEntry++) - 1;
+            count = appendTemp(count, from, end - from);
+            moveTo(end + 1);
+        }
+        else while (true) {
             if (isEnd()) throw error(UNEXPECTED_EOI);
-
-            mTemp = updateArray(mTemp, count);
             if (mCursor == '!')
             {
                 if (read() == '>') break;
-                else mTemp[count++] = (byte)'!';
+                mTemp = updateArray(mTemp, count);
+                mTemp[count++] = (byte)'!';
+                continue;
             }
-            mTemp[count++] = (byte)mCursor;
+
+            int from = mIndex - 1;
+            int stop = scan(from, '!', '!');
+            count = appendTemp(count, from, stop - from);
+            advance(stop);
         }
 
         require('>');
         skipWhiteSpaces();
 
-        mComment = new String(mTemp, 0, count);
+        mComment = decode(mTemp, 0, count);
     }
 
-    private String readValue() throws AmlPullParserException
+    private void readValue(int index) throws AmlPullParserException
     {
-        int count = 0;
+        if (mTaped && !isEnd())
+        {
+            // The tape gives the closing quote. The values with escaped characters, or not closed, are scanned for validate them.
+            mTapeEntry = mTape.find(mTapeEntry, mIndex - 1);
+            int entry = mTapeEntry < mTape.length() ? mTape.get(mTapeEntry++) : AmlStructuralIndex.ESCAPED;
+            if ((entry & AmlStructuralIndex.ESCAPED) == 0)
+            {
+                int i = index * 3;
+                mSpanSources[index] = mWindow;
+                mSpans[i] = mIndex - 1;
+                mSpans[i + 1] = entry - (mIndex - 1);
+                mSpans[i + 2] = 0;
+                moveTo(entry);
+                return;
+            }
+        }
 
-        mTemp = updateArray(mTemp, count);
-        mTemp[count++] = (byte) mCursor;
+        // The raw bytes are kept in place when the input window can't be refilled, else they are copied in raw buffer.
+        ByteBuffer source = mWindow;
+        int start = mIndex - 1;
+        int fills = mFills;
+        int rawStart = mRawCount;
+        boolean copy = mInput != null;
+        boolean escaped = false;
+        boolean escaping = false;
         while (true) {
-            read();
             if (isEnd()) throw error(UNEXPECTED_EOI);
+            if (!copy && fills != mFills)
+            {
+                copy = true;
+                appendRaw(source, start, source.limit() - start);
+            }
 
-            mTemp = updateArray(mTemp, count);
-            if (mCursor == '\\')
+            if (escaping)
             {
-                read();
-                switch (mCursor)
-                {
-                    case '"':
-                    case '/':
-                    case '\\':
-                        mTemp[count++] = (byte) mCursor;
-                        break;
-                    case 'b':
-                        mTemp[count++] = (byte) '\b';
-                        break;
-                    case 'f':
-                        mTemp[count++] = (byte) '\f';
-                        break;
-                    case 'n':
-                        mTemp[count++] = (byte) '\n';
-                        break;
-                    case 'r':
-                        mTemp[count++] = (byte) '\r';
-                        break;
-                    case 't':
-                        mTemp[count++] = (byte) '\t';
-                        break;
-                    case 'u':
-                        byte[] hex = new byte[4];
-                        boolean isHex = true;
-                        for (int i = 0; i < 4; i++)
-                        {
-                            read();
-                            if (!isHex()) isHex = false;
-                            hex[i] = (byte) mCursor;
-                        }
-                        if (isHex)
-                        {
-                            byte b = (byte)Integer.parseInt(new String(hex), 16);
-                            mTemp[count++] = b;
-                        }
-                        else
-                        {
-                            mTemp = updateArray(mTemp, count + 6);
-                            mTemp[count++] = (byte) '\\';
-                            mTemp[count++] = (byte) 'u';
-                            mTemp[count++] = hex[0];
-                            mTemp[count++] = hex[1];
-                            mTemp[count++] = hex[2];
-                            mTemp[count++] = hex[3];
-                        }
-                        break;
-                    default: throw expected("valid escape sequence");
-                }
-                read();
+                if (!isEscape()) throw expected("valid escape sequence");
+                escaping = false;
             }
+            else if (mCursor == '\\') escaped = escaping = true;
             else if (mCursor == '"') break;
+            else
+            {
+                int from = mIndex - 1;
+                int stop = scan(from, '"', '\\');
+                if (copy) appendRaw(mWindow, from, stop - from);
+                advance(stop);
+                continue;
+            }
+
+            if (copy) appendRaw((byte) mCursor);
+            read();
+        }
+
+        int i = index * 3;
+        if (copy)
+        {
+            mSpanSources[index] = mRawWindow;
+            mSpans[i] = rawStart;
+            mSpans[i + 1] = mRawCount - rawStart;
+        }
+        else
+        {
+            mSpanSources[index] = source;
+            mSpans[i] = start;
+            mSpans[i + 1] = (mIndex - 1) - start;
+        }
+        mSpans[i + 2] = escaped ? 1 : 0;
+    }
+
+    private String decodeValue(int index)
+    {
+        ByteBuffer source = mSpanSources[index];
+        int offset = mSpans[index * 3];
+        int length = mSpans[(index * 3) + 1];
+
+        if (mTemp.length < length) mTemp = new byte[length];
+        source.get(offset, mTemp, 0, length);
+        if (mChars.length < length) mChars = new char[length];
+        return decodeValue(mTemp, 0, length, mSpans[(index * 3) + 2] != 0, mChars);
+    }
+
+    /**
+     * Decode the raw bytes of value, with its escaped characters. The array of chars must contain at least {@code length} chars.
+     * Used by {@link AmlEventBlockFactory} for decode the values of block on demand.
+     */
+    static String decodeValue(byte[] bytes, int offset, int length, boolean escaped, char[] chars)
+    {
+        if (!escaped)
+        {
+            if (ascii(bytes, offset, length) == length) return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+            return new String(chars, 0, decodeTo(bytes, offset, length, chars, 0));
+        }
+
+        int end = offset + length;
+        int count = 0;
+        int i = offset;
+        while (i < end)
+        {
+            if (bytes[i] != '\\')
+            {
+                int stop = i + 1;
+                while (stop < end && bytes[stop] != '\\') stop++;
+                count = decodeTo(bytes, i, stop - i, chars, count);
+                i = stop;
+                continue;
+            }
+
+            char c = (char) bytes[++i];
+            switch (c)
+            {
+                case 'b':
+                    c = '\b';
+                    break;
+                case 'f':
+                    c = '\f';
+                    break;
+                case 'n':
+                    c = '\n';
+                    break;
+                case 'r':
+                    c = '\r';
+                    break;
+                case 't':
+                    c = '\t';
+                    break;
+                case 'u':
+                    // Each escaped UTF-16 unit is kept as is, so an escaped surrogate pair gives its supplementary character.
+                    int code = i + 4 < end ? hex(bytes, i + 1) : -1;
+                    if (code < 0)
+                    {
+                        chars[count++] = '\\';
+                        break;
+                    }
+                    c = (char) code;
+                    i += 4;
+                    break;
+                default:break;
+            }
+            chars[count++] = c;
+            i++;
+        }
+        return new String(chars, 0, count);
+    }
 
-            mTemp = updateArray(mTemp, count);
-            mTemp[count++] = (byte) mCursor;
+    private String decode(byte[] bytes, int offset, int length)
+    {
+        if (ascii(bytes, offset, length) == length) return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+
+        if (mChars.length < length) mChars = new char[length];
+        return new String(mChars, 0, decodeTo(bytes, offset, length, mChars, 0));
+    }
+
+    private static int decodeTo(byte[] bytes, int offset, int length, char[] chars, int count)
+    {
+        int end = offset + length;
+        int i = offset;
+        while (i < end)
+        {
+            int run = ascii(bytes, i, end - i);
+            for (int k = i + run; i < k; i++) chars[count++] = (char) bytes[i];
+            if (i >= end) break;
+
+            int b = bytes[i] & 0xFF;
+            int need;
+            int code;
+            int min;
+            if (b >= 0xC2 && b <= 0xDF)
+            {
+                need = 1;
+                code = b & 0x1F;
+                min = 0x80;
+            }
+            else if (b >= 0xE0 && b <= 0xEF)
+            {
+                need = 2;
+                code = b & 0x0F;
+                min = 0x800;
+            }
+            else if (b >= 0xF0 && b <= 0xF4)
+            {
+                need = 3;
+                code = b & 0x07;
+                min = 0x10000;
+            }
+            else
+            {
+                chars[count++] = '\uFFFD';
+                i++;
+                continue;
+            }
+
+            int k = 1;
+            for (; k <= need && i + k < end && (bytes[i + k] & 0xC0) == 0x80; k++) code = (code << 6) | (bytes[i + k] & 0x3F);
+            if (k <= need || code < min || code > Character.MAX_CODE_POINT || (code >= Character.MIN_SURROGATE && code <= Character.MAX_SURROGATE))
+            {
+                chars[count++] = '\uFFFD';
+                i += k;
+                continue;
+            }
+
+            if (code >= Character.MIN_SUPPLEMENTARY_CODE_POINT)
+            {
+                chars[count++] = Character.highSurrogate(code);
+                chars[count++] = Character.lowSurrogate(code);
+            }
+            else chars[count++] = (char) code;
+            i += need + 1;
+        }
+        return count;
+    }
+
+    private static int ascii(byte[] bytes, int offset, int length)
+    {
+        // Eight bytes are checked at once, the run ends at the first byte with the high bit set.
+        int i = offset;
+        int end = offset + length;
+        for (; i + 8 <= end; i += 8) if (((long) LONGS.get(bytes, i) & ASCII_MASK) != 0) break;
+        while (i < end && bytes[i] >= 0) i++;
+        return i - offset;
+    }
+
+    private static int hex(byte[] bytes, int offset)
+    {
+        int code = 0;
+        for (int i = offset; i < offset + 4; i++)
+        {
+            int digit = Character.digit(bytes[i], 16);
+            if (digit < 0) return -1;
+            code = (code << 4) | digit;
         }
-        return new String(mTemp, 0, count);
+        return code;
+    }
+
+    private String value(int index)
+    {
+        String value = mAttributes[(index * 4) + 3];
+        if (value == null) value = mAttributes[(index * 4) + 3] = decodeValue(index);
+        return value;
+    }
+
+    private void appendRaw(byte b)
+    {
+        if (mRawCount >= mRaw.length) growRaw(mRawCount + 1);
+        mRaw[mRawCount++] = b;
+    }
+
+    private void appendRaw(ByteBuffer source, int offset, int length)
+    {
+        if (mRawCount + length > mRaw.length) growRaw(mRawCount + length);
+        source.get(offset, mRaw, mRawCount, length);
+        mRawCount += length;
+    }
+
+    private void growRaw(int required)
+    {
+        // Spans of previous attributes keep the old raw window, so only the new raw bytes need the bigger array.
+        byte[] raw = new byte[Math.max(required, mRaw.length << 1)];
+        System.arraycopy(mRaw, 0, raw, 0, mRawCount);
+        mRaw = raw;
+        mRawWindow = ByteBuffer.wrap(raw);
     }
 
     private String readName() throws AmlPullParserException
@@ -421,20 +1025,30 @@ final class AmlPullParserFactory implements AmlPullParser
         if (isEnd()) throw expected("name");
 
         int count = 0;
-
-        mTemp = updateArray(mTemp, count);
-        mTemp[count++] = (byte) mCursor;
+        int hash = mCursor;
+        int from = mIndex - 1;
         while (true) {
-            read();
-            if (isEnd()) throw error(UNEXPECTED_EOI);
-            if ((mCursor >= 'a' && mCursor <= 'z') || (mCursor >= 'A' && mCursor <= 'Z') || isDigit() || mCursor == '_' || mCursor == '-' || mCursor == ':' || mCursor == '.' || mCursor >= '·')
+            int max = mMax;
+            int stop = from + 1;
+            while (stop < max)
             {
-                mTemp = updateArray(mTemp, count);
-                mTemp[count++] = (byte) mCursor;
-                continue;
+                byte b = mWindow.get(stop);
+                if (!isNameChar(b)) break;
+                hash = 31 * hash + b;
+                stop++;
             }
-            return new String(mTemp, 0, count);
+
+            count = appendTemp(count, from, stop - from);
+            advance(stop);
+            if (isEnd()) throw error(UNEXPECTED_EOI);
+            if (stop < max || !isNameChar(mCursor)) break;
+
+            hash = 31 * hash + mCursor;
+            from = mIndex - 1;
         }
+
+        if (mInternNames) return mSymbols.intern(mTemp, 0, count, hash);
+        return decode(mTemp, 0, count);
     }
 
     private int read()
@@ -445,11 +1059,55 @@ final class AmlPullParserFactory implements AmlPullParser
             mLineOffset = mPosition;
             mLine++;
         }
-        mCursor = mBuffer[mIndex++];
+        mCursor = mWindow.get(mIndex++);
         mPosition++;
         return mCursor;
     }
 
+    private int scan(int from, char stop1, char stop2)
+    {
+        // Find the next stop byte in the current window. The new lines before the last byte of window are counted here, the last one is counted on refill.
+        int max = mMax;
+        for (int i = from; i < max; i++)
+        {
+            byte b = mWindow.get(i);
+            if (b == stop1 || b == stop2) return i;
+            if (b == '\n' && i + 1 < max) newLine(i);
+        }
+        return max;
+    }
+
+    private void advance(int index)
+    {
+        // Move the cursor on byte at index, or on the first byte of next window when index is the end of current window.
+        if (index < mMax) moveTo(index);
+        else
+        {
+            moveTo(index - 1);
+            read();
+        }
+    }
+
+    private void moveTo(int index)
+    {
+        mPosition += (index + 1) - mIndex;
+        mIndex = index + 1;
+        mCursor = mWindow.get(index);
+    }
+
+    private void newLine(int index)
+    {
+        mLine++;
+        mLineOffset = (mPosition - mIndex) + index + 1;
+    }
+
+    private int appendTemp(int count, int offset, int length)
+    {
+        if (count + length > mTemp.length) mTemp = updateArray(mTemp, count + length);
+        mWindow.get(offset, mTemp, count, length);
+        return count + length;
+    }
+
     private void require(char c) throws AmlPullParserException
     {
         if (c != mCursor) throw expected("'" + c + "' character but '" + ((char)mCursor) + "' character is founded.");
@@ -461,6 +1119,62 @@ final class AmlPullParserFactory implements AmlPullParser
         while (isWhiteSpace()) read();
     }
 
+    /**
+     * Continue inside the elements opened by parent parser, with their names and namespaces. Used by parallel parsing after {@code setInput}.
+     */
+    void inherit(AmlPullParserFactory parent)
+    {
+        int depth = parent.mDepth;
+
+        mElementStack = updateArray(mElementStack, depth * 4);
+        System.arraycopy(parent.mElementStack, 0, mElementStack, 0, depth * 4);
+
+        if (mNspCounts.length <= depth + 1) mNspCounts = new int[depth + 4];
+        System.arraycopy(parent.mNspCounts, 0, mNspCounts, 0, depth + 1);
+
+        int nsp = parent.mNspCounts[depth] << 1;
+        mNspStack = updateArray(mNspStack, nsp);
+        System.arraycopy(parent.mNspStack, 0, mNspStack, 0, nsp);
+
+        mDepth = depth;
+    }
+
+    /**
+     * Give the window of bytes fed by {@link AmlFeedParserFactory}, readable until {@code max}. The cursor is moved back by {@code shift} when the bytes are moved to the start of window.
+     * The first byte of document is read on the first window, like {@code setInput}.
+     */
+    void setWindow(ByteBuffer window, int shift, int max)
+    {
+        mWindow = window;
+        mIndex -= shift;
+        mMax = max;
+        if (mPosition == 0) read();
+    }
+
+    /**
+     * Get the index in window of current byte, or {@code -1} if the first byte is not read.
+     */
+    int getCursorIndex()
+    {
+        return mIndex - 1;
+    }
+
+    /**
+     * Know if the {@link AmlPullParser#END_TAG} of empty element is the next event, given without read any byte.
+     */
+    boolean hasEndingTag()
+    {
+        return mEndingTag;
+    }
+
+    /**
+     * Get the offset in file of '{' character of current tag. Only valid for {@link FileChannel} input.
+     */
+    long getTagOffset()
+    {
+        return mTagOffset;
+    }
+
     private String[] updateArray(String[] array, int required)
     {
         if (array.length >= required) return array;
@@ -474,7 +1188,7 @@ final class AmlPullParserFactory implements AmlPullParser
     {
         if (count < array.length) return array;
 
-        byte[] bigger = new byte[array.length + 16];
+        byte[] bigger = new byte[Math.max(count + 1, array.length << 1)];
         System.arraycopy(array, 0, bigger, 0, array.length);
         return bigger;
     }
@@ -494,9 +1208,14 @@ final class AmlPullParserFactory implements AmlPullParser
         return mCursor >= '0' && mCursor <= '9';
     }
 
-    private boolean isHex()
+    private static boolean isNameChar(int c)
+    {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-' || c == ':' || c == '.' || c < 0; // Every byte of UTF-8 sequence is negative.
+    }
+
+    private boolean isEscape()
     {
-        return isDigit() || mCursor >= 'a' && mCursor <= 'f' || mCursor >= 'A' && mCursor <= 'F';
+        return mCursor == '"' || mCursor == '/' || mCursor == '\\' || mCursor == 'b' || mCursor == 'f' || mCursor == 'n' || mCursor == 'r' || mCursor == 't' || mCursor == 'u';
     }
 
     private boolean fillBuffer()
@@ -504,7 +1223,15 @@ final class AmlPullParserFactory implements AmlPullParser
         if (mIndex < mMax) return true; // Unecessary to fill buffer, but notify this like an filled buffer for read more bytes of array buffered !!
         try {
             int count;
-            if ((count = mInput.read(mBuffer)) < 0)
+            if (mChannel != null) count = mapWindow();
+            else if (mInput != null)
+            {
+                if (mBuffer.length < mBufferSize) allocateBuffer();
+                count = mInput.read(mBuffer);
+            }
+            else count = -1;
+
+            if (count < 0)
             {
                 mCursor = -1;
                 mIndex = -1;
@@ -513,6 +1240,7 @@ final class AmlPullParserFactory implements AmlPullParser
             }
             mIndex = 0;
             mMax = count;
+            mFills++;
             return true;
         } catch (IOException e) {
             mCursor = -1;
@@ -522,6 +1250,118 @@ final class AmlPullParserFactory implements AmlPullParser
         }
     }
 
+    private void allocateBuffer()
+    {
+        // Only called when all bytes of buffer are read, no byte is lost.
+        mBuffer = new byte[mBufferSize];
+        mBufferWindow = ByteBuffer.wrap(mBuffer);
+        mWindow = mBufferWindow;
+    }
+
+    private int mapWindow() throws IOException
+    {
+        // A mapping can't exceed 2 GB, so huge files are mapped window after window. Tokens crossing the window bound are read like any buffer refill.
+        long remaining = mChannelSize - mChannelPosition;
+        if (remaining <= 0) return -1;
+
+        int length = (int)Math.min(remaining, MAX_WINDOW);
+        mWindow = mChannel.map(FileChannel.MapMode.READ_ONLY, mChannelPosition, length);
+        mTaped = false;
+        if (mStructuralIndex && mFills == 0 && length == remaining) buildTape(0, length);
+
+        mChannelPosition += length;
+        return length;
+    }
+
+    private void buildTape(int start, int end)
+    {
+        // Only a document entirely in one window can be indexed, the tape positions are window indexes.
+        mTape.build(mWindow, start, end);
+        mTapeEntry = 0;
+        mTapeStart = start;
+        mTapeEnd = end;
+        mTaped = true;
+    }
+
+    private void skipTaped() throws AmlPullParserException
+    {
+        int level = 1;
+        boolean endTag = false;
+        boolean selfClosing = false;
+        for (int e = mTape.find(mTapeEntry, mIndex - 1); e < mTape.length(); e++)
+        {
+            int position = mTape.get(e) & AmlStructuralIndex.POSITION;
+            byte b = mWindow.get(position);
+            if (b == '{')
+            {
+                endTag = position + 1 < mTapeEnd && mWindow.get(position + 1) == '/';
+                selfClosing = false;
+                if (!endTag) level++;
+            }
+            else if (b == '/') selfClosing = !endTag;
+            else if (b == '}')
+            {
+                if ((endTag || selfClosing) && --level == 0)
+                {
+                    mTapeEntry = e + 1;
+                    moveTo(position);
+                    read();
+                    skipWhiteSpaces();
+
+                    mEventType = END_TAG;
+                    mPrefix = null;
+                    mName = null;
+                    mNamespace = null;
+                    mAttributeCount = -1;
+                    return;
+                }
+                endTag = false;
+                selfClosing = false;
+            }
+        }
+        throw endOfTape();
+    }
+
+    private AmlPullParserException endOfTape()
+    {
+        mTapeEntry = mTape.length();
+        mIndex = mMax;
+        read();
+        return error(UNEXPECTED_EOI);
+    }
+
+    private void reset(int index, int max)
+    {
+        // Each input has a new number, so the blocks filled from previous input know their name ids are stale.
+        mInputs++;
+        mIndex = index;
+        mMax = max;
+        mCursor = 0;
+        mPosition = 0;
+        mEventType = START_DOCUMENT;
+        mLine = 0;
+        mLineOffset = 0;
+        mDepth = 0;
+        mEndingTag = false;
+        mNamespace = null;
+        mName = null;
+        mComment = null;
+        mPrefix = null;
+        mAttributeCount = -1;
+        mRawCount = 0;
+        mFills = 0;
+        mNextFills = 0;
+        mTaped = false;
+        mIndexed = false;
+
+        // Only the references to previous input are released, the arrays are kept for the next document.
+        Arrays.fill(mSpanSources, null);
+        Arrays.fill(mAttributes, null);
+        Arrays.fill(mElementStack, null);
+        Arrays.fill(mNspStack, null);
+        mSymbols.trim();
+    }
+
     private void adjustNsp() throws AmlPullParserException
     {
         boolean any = false;
@@ -533,8 +1373,8 @@ final class AmlPullParserFactory implements AmlPullParser
             String prefix;
             if (cut != -1)
             {
-                prefix = attrName.substring(0, cut);
-                attrName = attrName.substring(cut + 1);
+                prefix = prefixOf(attrName, cut);
+                attrName = localOf(attrName, cut);
             }
             else if (attrName.equals("amlns"))
             {
@@ -551,11 +1391,11 @@ final class AmlPullParserFactory implements AmlPullParser
 
                 mNspStack = updateArray(mNspStack, e + 2);
                 mNspStack[e] = attrName;
-                mNspStack[e + 1] = mAttributes[i + 3];
+                mNspStack[e + 1] = value(i >> 2);
 
-                if (attrName != null && mAttributes[i + 3].isEmpty()) throw error("Illegal empty namespace");
+                if (attrName != null && mNspStack[e + 1].isEmpty()) throw error("Illegal empty namespace");
 
-                System.arraycopy(mAttributes, i + 4, mAttributes, i, ((--mAttributeCount) << 2) - i);
+                removeAttribute(i >> 2);
                 i -= 4;
             }
         }
@@ -568,8 +1408,8 @@ final class AmlPullParserFactory implements AmlPullParser
                 if (cut == 0) throw error("Illegal attribute name '" + attrName + "'");
                 else if (cut != -1)
                 {
-                    String attrPrefix = attrName.substring(0, cut);
-                    attrName = attrName.substring(cut + 1);
+                    String attrPrefix = prefixOf(attrName, cut);
+                    attrName = localOf(attrName, cut);
 
 
                     String attrNs = getNamespace(attrPrefix);
@@ -586,8 +1426,8 @@ final class AmlPullParserFactory implements AmlPullParser
         if (cut == 0) throw error("Illegal tag name: " + mName);
         if (cut != -1)
         {
-            mPrefix = mName.substring(0, cut);
-            mName = mName.substring(cut + 1);
+            mPrefix = prefixOf(mName, cut);
+            mName = localOf(mName, cut);
         }
 
         mNamespace = getNamespace(mPrefix);
@@ -598,6 +1438,122 @@ final class AmlPullParserFactory implements AmlPullParser
         }
     }
 
+    private long parseLong(int index, String type) throws AmlPullParserException
+    {
+        if (mSpans[(index * 3) + 2] != 0)
+        {
+            try {
+                return Long.parseLong(value(index));
+            } catch (NumberFormatException e) {
+                throw illegalValue(index, type);
+            }
+        }
+
+        ByteBuffer source = mSpanSources[index];
+        int i = mSpans[index * 3];
+        int end = i + mSpans[(index * 3) + 1];
+
+        boolean negative = i < end && source.get(i) == '-';
+        if (negative || (i < end && source.get(i) == '+')) i++;
+        if (i == end) throw illegalValue(index, type);
+
+        // Accumulated in negative for reach Long.MIN_VALUE without overflow.
+        long value = 0;
+        for (; i < end; i++)
+        {
+            int digit = source.get(i) - '0';
+            if (digit < 0 || digit > 9 || value < (Long.MIN_VALUE + digit) / 10) throw illegalValue(index, type);
+            value = (value * 10) - digit;
+        }
+
+        if (negative) return value;
+        if (value == Long.MIN_VALUE) throw illegalValue(index, type);
+        return -value;
+    }
+
+    private int indexOf(String namespace, String name)
+    {
+        if (name == null) return -1;
+        if (mAttributeCount > INDEX_THRESHOLD)
+        {
+            if (!mIndexed) indexAttributes();
+
+            int mask = mAttributeSlots.length - 1;
+            for (int slot = spread(name.hashCode()) & mask; mAttributeSlots[slot] != 0; slot = (slot + 1) & mask)
+            {
+                int index = mAttributeSlots[slot] - 1;
+                if (matches(index, namespace, name)) return index;
+            }
+            return -1;
+        }
+        for (int i = mAttributeCount - 1; i >= 0; i--) if (matches(i, namespace, name)) return i;
+        return -1;
+    }
+
+    private void indexAttributes()
+    {
+        // Keyed on name only, so the lookup without namespace use the same slots. The last attributes are inserted first, they win like in linear lookup.
+        int length = mAttributeSlots.length;
+        while (length < (mAttributeCount << 1)) length <<= 1;
+        if (length != mAttributeSlots.length) mAttributeSlots = new int[length];
+        else Arrays.fill(mAttributeSlots, 0);
+
+        int mask = length - 1;
+        for (int index = mAttributeCount - 1; index >= 0; index--)
+        {
+            int slot = spread(mAttributes[(index * 4) + 2].hashCode()) & mask;
+            while (mAttributeSlots[slot] != 0) slot = (slot + 1) & mask;
+            mAttributeSlots[slot] = index + 1;
+        }
+        mIndexed = true;
+    }
+
+    private boolean matches(int index, String namespace, String name)
+    {
+        String attrName = mAttributes[(index * 4) + 2];
+        if (attrName != name && !attrName.equals(name)) return false;
+        return namespace == null || namespace.equals(mAttributes[index * 4]);
+    }
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean matches(int index, String lowerCase)
+    {
+        ByteBuffer source = mSpanSources[index];
+        int offset = mSpans[index * 3];
+        if (mSpans[(index * 3) + 1] != lowerCase.length()) return false;
+        for (int i = 0; i < lowerCase.length(); i++) if ((source.get(offset + i) | 0x20) != lowerCase.charAt(i)) return false;
+        return true;
+    }
+
+    private AmlPullParserException illegalValue(int index, String type)
+    {
+        return error("Illegal " + type + " value '" + value(index) + "' for attribute '" + mAttributes[(index * 4) + 2] + "'");
+    }
+
+    private void removeAttribute(int index)
+    {
+        int count = --mAttributeCount;
+        System.arraycopy(mAttributes, (index + 1) << 2, mAttributes, index << 2, (count - index) << 2);
+        System.arraycopy(mSpans, (index + 1) * 3, mSpans, index * 3, (count - index) * 3);
+        System.arraycopy(mSpanSources, index + 1, mSpanSources, index, count - index);
+    }
+
+    private String prefixOf(String name, int cut)
+    {
+        String prefix = mInternNames ? mSymbols.prefix(name) : null;
+        return prefix != null ? prefix : name.substring(0, cut);
+    }
+
+    private String localOf(String name, int cut)
+    {
+        String local = mInternNames ? mSymbols.local(name) : null;
+        return local != null ? local : name.substring(cut + 1);
+    }
+
     private AmlPullParserException expected(String message) throws AmlPullParserException
     {
         if (isEnd()) throw error(message);
@@ -606,6 +1562,20 @@ final class AmlPullParserFactory implements AmlPullParser
 
     private AmlPullParserException error(String message)
     {
+        if (mTaped)
+        {
+            // The tape jumps over the new lines, so they are counted only when an error is reported.
+            int cursor = isEnd() ? mTapeEnd - 1 : mIndex - 1;
+            int line = 0;
+            int lineStart = mTapeStart;
+            for (int i = mTapeStart; i < cursor; i++)
+            {
+                if (mWindow.get(i) != '\n') continue;
+                line++;
+                lineStart = i + 1;
+            }
+            return new AmlPullParserException(message, line, cursor - lineStart);
+        }
         return new AmlPullParserException(message, mLine, (mPosition - mLineOffset) - 1);
     }
 
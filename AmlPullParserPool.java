@@ -0,0 +1,64 @@
+/**
+ * {@code AmlPullParserPool} is a bounded pool of reusable {@link AmlPullParser}.
+ * <br><br>
+ * A borrowed parser is owned by only one thread until it's released. Released parsers keep their internal buffers,
+ * so parsing in steady state allocates only the strings requested by the caller.
+ * <br><br>
+ * This is an example to use this pool :
+ * <blockquote><pre>
+ *     AmlPullParserPool pool = AmlPullParserPool.newPool(64, AmlPullParser.FEATURE_PROCESS_NAMESPACES);
+ *
+ *     AmlPullParser parser = pool.borrow();
+ *     try {
+ *          parser.setInput(payload);
+ *          ...
+ *     } finally {
+ *          pool.release(parser);
+ *     }
+ * </pre></blockquote>
+ * The pool never keeps more than its capacity of idle parsers. When it's empty, a new parser is created,
+ * and when it's full, the released parser is dropped.
+ * @since 1.2
+ * @Version 1.0
+ * @Created  : vendredi 17 octobre 2026
+ * @Author   : Yoann Meclot (DevMyBits)
+ * @E-mail   : devmybits@gmail.com
+ * @see AmlPullParser
+ */
+public interface AmlPullParserPool
+{
+    /**
+     * Create instance of parser pool.
+     *
+     * @param capacity The maximum count of idle parsers kept by the pool.
+     * @param features The features set to {@code true} on each parser created by the pool.
+     * @return New instance of {@code AmlPullParserPool}.
+     * @throws IllegalArgumentException If capacity is lower than 1.
+     * @since 1.2
+     */
+    static AmlPullParserPool newPool(int capacity, String... features)
+    {
+        return new AmlPullParserPoolFactory(capacity, features);
+    }
+
+    /**
+     * Borrow a parser from the pool, or create a new one if the pool is empty.
+     * <br>
+     * Don't change the features of borrowed parser, the next borrower expects the features of the pool.
+     *
+     * @return The parser owned by the caller until {@link AmlPullParserPool#release(AmlPullParser)}.
+     * @throws AmlPullParserException If a feature of the pool is unsupported.
+     * @since 1.2
+     */
+    AmlPullParser borrow() throws AmlPullParserException;
+
+    /**
+     * Give back a parser to the pool.
+     * <br>
+     * The parser is cleared, but its input is not closed. Don't use the parser after this call.
+     *
+     * @param parser The parser borrowed from this pool.
+     * @since 1.2
+     */
+    void release(AmlPullParser parser);
+}
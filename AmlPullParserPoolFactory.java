@@ -0,0 +1,56 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlPullParserPoolFactory implements AmlPullParserPool
+{
+    private final AtomicReferenceArray<AmlPullParser> mSlots;
+    private final String[] mFeatures;
+
+    @Override
+    public AmlPullParser borrow() throws AmlPullParserException
+    {
+        // Each thread starts on a random slot, so concurrent threads rarely fight for the same slot.
+        int length = mSlots.length();
+        int start = ThreadLocalRandom.current().nextInt(length);
+        for (int i = 0; i < length; i++)
+        {
+            int slot = (start + i) % length;
+            if (mSlots.get(slot) == null) continue;
+
+            AmlPullParser parser = mSlots.getAndSet(slot, null);
+            if (parser != null) return parser;
+        }
+
+        AmlPullParser parser = AmlPullParser.newPullParser();
+        for (String feature : mFeatures) parser.setFeature(feature, true);
+        return parser;
+    }
+
+    @Override
+    public void release(AmlPullParser parser)
+    {
+        if (parser == null) return;
+        parser.clear();
+
+        int length = mSlots.length();
+        int start = ThreadLocalRandom.current().nextInt(length);
+        for (int i = 0; i < length; i++)
+        {
+            int slot = (start + i) % length;
+            if (mSlots.get(slot) == null && mSlots.compareAndSet(slot, null, parser)) return;
+        }
+    }
+
+    AmlPullParserPoolFactory(int capacity, String[] features)
+    {
+        if (capacity < 1) throw new IllegalArgumentException("Illegal capacity " + capacity + " ! The pool must keep at least one parser.");
+
+        mSlots = new AtomicReferenceArray<>(capacity);
+        mFeatures = features.clone();
+    }
+}
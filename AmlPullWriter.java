@@ -1,4 +1,5 @@
 import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * <h3>Atao Markup Language</h3> is an specifical textual format for struct data.
@@ -35,14 +36,32 @@ import java.io.OutputStream;
  *     {/}
  * </pre></blockquote>
  * <br>
- * {@code AmlPullWriter} can use '\' character for escaping char in attribute value.
+ * {@code AmlPullWriter} escapes the '"' and '\' characters of attribute value with '\' character, the value is given as is.
  * <br>
  * <blockquote><pre>
- *     {Message text="Je m\"appelle Yoann."/}
+ *     writer.attribute("text", "Je m\"appelle Yoann."); // {Message text="Je m\"appelle Yoann."/}
  * </pre></blockquote>
  * See {@code AmlPullParser} comment to see the list of supported escaped characters.
+ * A comment can't contain its end "!&gt;", a space is written between the '!' and '&gt;' of comment text.
+ * <br><br>
+ * For huge document, write the elements directly on output without build them :
+ * <blockquote><pre>
+ *     AmlPullWriter writer = AmlPullWriter.newPullWriter();
+ *     writer.setOutput(new FileOutputStream("export.aml"));
+ *     writer.startTag("rows");
+ *     while (cursor.next())
+ *     {
+ *          writer.startTag("row");
+ *          writer.attribute("id", cursor.getString(1));
+ *          writer.endTag(); // {row id="1"/}
+ *     }
+ *     writer.endTag(); // {/}
+ *     writer.close();
+ * </pre></blockquote>
+ * The output can be a channel, {@code writer.setOutput(FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))}, for write huge document with few system calls.
+ * Only the depth of open elements is kept, the memory don't grow with the document.
  * @since 1.0
- * @Version 1.1
+ * @Version 1.2
  * @Created  : vendredi 18 avril 2025
  * @Author   : Yoann Meclot (DevMyBits)
  * @E-mail   : devmybits@gmail.com
@@ -74,6 +93,17 @@ public interface AmlPullWriter
         return new AmlElement(name);
     }
 
+    /**
+     * Create a compact document, for build huge tree of elements.
+     *
+     * @return New instance of {@link AmlPullWriter.Document}.
+     * @since 1.2
+     */
+    static Document newDocument()
+    {
+        return new AmlDocument();
+    }
+
     /**
      * Create instance of comment.
      *
@@ -91,10 +121,22 @@ public interface AmlPullWriter
      * Define output stream to be written.
      *
      * @param output The output stream for written.
+     * @throws IllegalStateException If an element is not ended or if bytes are not written to previous output, call {@link AmlPullWriter#flush()} before.
      * @since 1.0
      */
     void setOutput(OutputStream output);
 
+    /**
+     * Define channel to be written, like a {@link java.nio.channels.FileChannel} or a {@link java.nio.channels.SocketChannel} in blocking mode.
+     * <br>
+     * The bytes are copied in direct buffers of 64 KB shared by all writers, up to 16 full buffers are written together by one call on a {@link java.nio.channels.GatheringByteChannel}.
+     *
+     * @param channel The channel for written.
+     * @throws IllegalStateException If an element is not ended or if bytes are not written to previous output, call {@link AmlPullWriter#flush()} before.
+     * @since 1.2
+     */
+    void setOutput(WritableByteChannel channel);
+
     /**
      * Define root element of document.
      *
@@ -111,7 +153,61 @@ public interface AmlPullWriter
     void write() throws AmlPullWriterException;
 
     /**
-     * Close the output stream.
+     * Write the start of element on output. The attributes of element are written after, by {@link AmlPullWriter#attribute(String, String)}.
+     * <br>
+     * If the current element is open, it gets this element as child.
+     *
+     * @param name The name of element.
+     * @throws AmlPullWriterException If the name is null or empty, if output stream is undefined or error is occurred in {@link java.io.IOException}
+     * @since 1.2
+     */
+    void startTag(String name) throws AmlPullWriterException;
+
+    /**
+     * Write an attribute of current element on output. The '"' and '\' characters of value are escaped.
+     *
+     * @param name The name (key) of attribute.
+     * @param value The value of attribute.
+     * @throws AmlPullWriterException If the name and/or value is null, if a child or a comment is already written in current element or error is occurred in {@link java.io.IOException}
+     * @since 1.2
+     */
+    void attribute(String name, String value) throws AmlPullWriterException;
+
+    /**
+     * Write a comment on output, in current element or out of any element. The "!&gt;" of text are written "! &gt;".
+     *
+     * @param text The text of comment.
+     * @throws AmlPullWriterException If the text is null, if output stream is undefined or error is occurred in {@link java.io.IOException}
+     * @since 1.2
+     */
+    void comment(String text) throws AmlPullWriterException;
+
+    /**
+     * Write the end of current element on output : <code>/}</code> if nothing is written in element, else <code>{/}</code>.
+     *
+     * @throws AmlPullWriterException If no element is open or error is occurred in {@link java.io.IOException}
+     * @since 1.2
+     */
+    void endTag() throws AmlPullWriterException;
+
+    /**
+     * Get the count of elements started and not ended.
+     *
+     * @return The current depth.
+     * @since 1.2
+     */
+    int getDepth();
+
+    /**
+     * Write the buffered bytes on output stream, and flush it.
+     *
+     * @throws AmlPullWriterException If error is occurred in {@link java.io.IOException}
+     * @since 1.2
+     */
+    void flush() throws AmlPullWriterException;
+
+    /**
+     * Write the buffered bytes and close the output stream.
      *
      * @throws AmlPullWriterException If error is occurred in {@link java.io.IOException}
      */
@@ -244,6 +340,54 @@ public interface AmlPullWriter
         int getCommentCount();
     }
 
+    /**
+     * The {@code Document} class keeps a tree of elements in some arrays of integers, for build huge tree with few memory.
+     * <br><br>
+     * An element created by {@link Document#newElement(String)} is a view on its index in document, it don't own its name, attributes, comments and children.
+     * The names, values and comments are kept one time in UTF-8 in an array of bytes of document, whatever the count of elements using them,
+     * and the getters of element create their strings again. The writer copies the bytes of tree from the arrays, without walk any object.
+     * <br><br>
+     * This is an example to use document :
+     * <blockquote><pre>
+     *     AmlPullWriter.Document document = AmlPullWriter.newDocument();
+     *     AmlPullWriter.Element rows = document.newElement("rows");
+     *     while (cursor.next())
+     *     {
+     *          AmlPullWriter.Element row = document.newElement("row");
+     *          row.addAttribute("id", cursor.getString(1));
+     *          rows.addElement(row);
+     *     }
+     *     writer.setElement(rows);
+     *     writer.write();
+     * </pre></blockquote>
+     * An element of document only gets the elements of same document as children, and has only one parent.
+     * The removed attributes, comments and elements stay in the arrays until {@link Document#clear()}.
+     *
+     * @see AmlPullWriter#newDocument()
+     * @since 1.2
+     * @Version 1.0
+     */
+    interface Document
+    {
+        /**
+         * Create an element in document, without parent.
+         *
+         * @param name The name of AML element.
+         * @return New view of element.
+         * @throws AmlPullWriterException If the name is null or empty.
+         * @since 1.2
+         */
+        Element newElement(String name) throws AmlPullWriterException;
+
+        /**
+         * Remove all elements and strings of document, its arrays are kept for the next tree. The elements created before are no longer valid,
+         * their methods throw {@link IllegalStateException}.
+         *
+         * @since 1.2
+         */
+        void clear();
+    }
+
     /**
      * The {@code Attribute} class represent an attribute with values pair (name and value) in AML format.
      * <br><br>
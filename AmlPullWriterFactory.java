@@ -1,5 +1,10 @@
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 
 /**
  * Créer le : vendredi 18 avril 2025
@@ -8,36 +13,385 @@ import java.io.OutputStream;
  */
 final class AmlPullWriterFactory implements AmlPullWriter
 {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int CHUNK_SIZE = 65536;
+    private static final int GATHER_SIZE = 16;
+    private static final int POOL_SIZE = 64;
+
+    private static final int TEXT = 0;
+    private static final int VALUE = 1;
+    private static final int COMMENT = 2;
+
+    // The direct chunks are shared by all writers, a writer takes them when it writes on a channel and gives them back after the gathering write.
+    private static final Queue<ByteBuffer> CHUNKS = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private final byte[] mBuffer = new byte[BUFFER_SIZE];
+    private final ByteBuffer[] mChunks = new ByteBuffer[GATHER_SIZE];
+
     private OutputStream mOutput;
-    private AmlElement mRootElement;
+    private WritableByteChannel mChannel;
+    private Element mRootElement;
+    private ByteBuffer mChunk;
+    private int mChunkCount;
+    private int mCount;
+    private int mDepth;
+    private boolean mStartTagOpen;
 
     @Override
     public void setOutput(OutputStream output)
     {
+        checkWritten();
+        reset();
         mOutput = output;
+        mChannel = null;
+    }
+
+    @Override
+    public void setOutput(WritableByteChannel channel)
+    {
+        checkWritten();
+        reset();
+        mOutput = null;
+        mChannel = channel;
     }
 
     @Override
     public void setElement(Element element)
     {
-        mRootElement = (AmlElement)element;
+        mRootElement = element;
     }
 
     @Override
     public void write() throws AmlPullWriterException
     {
         if (mRootElement == null) throw new AmlPullWriterException("Root element is null, define root element before call AmlPullWriter.write() method.");
-        if (mOutput == null) throw new AmlPullWriterException("Output stream is null, define output stream before call AmlPullWriter.write() method.");
-        mRootElement.writeTo(mOutput);
+        if (mOutput == null && mChannel == null) throw new AmlPullWriterException("Output is null, define output stream or channel before call AmlPullWriter.write() method.");
+
+        // The root element can be a child of a started element. It's encoded in the same buffer, then given to output stream.
+        if (mRootElement instanceof AmlDocument.View) ((AmlDocument.View) mRootElement).writeTo(this);
+        else ((AmlElement) mRootElement).writeTo(this);
+        writeAll();
+    }
+
+    @Override
+    public void startTag(String name) throws AmlPullWriterException
+    {
+        if (name == null || name.trim().isEmpty()) throw new AmlPullWriterException("Illegal argument. You don't start tag with null name or empty name.");
+        if (mOutput == null && mChannel == null) throw new AmlPullWriterException("Output is null, define output stream or channel before call AmlPullWriter.startTag() method.");
+        writeStartTag(name);
+    }
+
+    @Override
+    public void attribute(String name, String value) throws AmlPullWriterException
+    {
+        if ((name == null || name.trim().isEmpty()) || value == null) throw new AmlPullWriterException("Illegal argument(s). You don't add attribute with null name or empty name or null value.");
+        if (!mStartTagOpen) throw new AmlPullWriterException("Illegal state, attribute is only allowed after startTag and before any child or comment.");
+        writeAttribute(name, value);
+    }
+
+    @Override
+    public void comment(String text) throws AmlPullWriterException
+    {
+        if (text == null) throw new AmlPullWriterException("Illegal argument. You don't add comment with null text.");
+        if (mOutput == null && mChannel == null) throw new AmlPullWriterException("Output is null, define output stream or channel before call AmlPullWriter.comment() method.");
+        writeComment(text);
+    }
+
+    @Override
+    public void endTag() throws AmlPullWriterException
+    {
+        if (mDepth == 0) throw new AmlPullWriterException("Illegal state, endTag is called with no element started.");
+        writeEndTag();
+    }
+
+    @Override
+    public int getDepth()
+    {
+        return mDepth;
+    }
+
+    @Override
+    public void flush() throws AmlPullWriterException
+    {
+        writeAll();
+        try {
+            if (mOutput != null) mOutput.flush();
+        } catch (IOException e) {
+            throw new AmlPullWriterException(e);
+        }
     }
 
     @Override
     public void close() throws AmlPullWriterException
     {
         try {
-            mOutput.close();
+            writeAll();
+            if (mOutput != null) mOutput.close();
+            else mChannel.close();
         } catch (IOException e) {
             throw new AmlPullWriterException(e);
+        } finally {
+            reset();
         }
     }
+
+    /**
+     * Write the start of element, the arguments are already checked. Used by {@link AmlElement} and {@link AmlDocument} for write a tree in the same buffer.
+     */
+    void writeStartTag(String name) throws AmlPullWriterException
+    {
+        closeStartTag();
+        write('{');
+        write(name, TEXT);
+        mStartTagOpen = true;
+        mDepth++;
+    }
+
+    void writeAttribute(String name, String value) throws AmlPullWriterException
+    {
+        write(' ');
+        write(name, TEXT);
+        write('=');
+        write('"');
+        write(value, VALUE);
+        write('"');
+    }
+
+    void writeComment(String text) throws AmlPullWriterException
+    {
+        closeStartTag();
+        write('<');
+        write('!');
+        write(text, COMMENT);
+        write('!');
+        write('>');
+    }
+
+    void writeEndTag() throws AmlPullWriterException
+    {
+        // An element without child and comment is ended in its start tag.
+        if (mStartTagOpen) write('/');
+        else
+        {
+            write('{');
+            write('/');
+        }
+        write('}');
+        mStartTagOpen = false;
+        mDepth--;
+    }
+
+    /**
+     * Write the tokens from the UTF-8 bytes of strings, like the methods with strings. Used by {@link AmlDocument} for write from its arena.
+     */
+    void writeStartTag(byte[] bytes, int offset, int length) throws AmlPullWriterException
+    {
+        closeStartTag();
+        write('{');
+        write(bytes, offset, length, TEXT);
+        mStartTagOpen = true;
+        mDepth++;
+    }
+
+    void writeAttribute(byte[] bytes, int nameOffset, int nameLength, int valueOffset, int valueLength) throws AmlPullWriterException
+    {
+        write(' ');
+        write(bytes, nameOffset, nameLength, TEXT);
+        write('=');
+        write('"');
+        write(bytes, valueOffset, valueLength, VALUE);
+        write('"');
+    }
+
+    void writeComment(byte[] bytes, int offset, int length) throws AmlPullWriterException
+    {
+        closeStartTag();
+        write('<');
+        write('!');
+        write(bytes, offset, length, COMMENT);
+        write('!');
+        write('>');
+    }
+
+    private void closeStartTag() throws AmlPullWriterException
+    {
+        if (!mStartTagOpen) return;
+        write('}');
+        mStartTagOpen = false;
+    }
+
+    private void write(char c) throws AmlPullWriterException
+    {
+        if (mCount == BUFFER_SIZE) writeBuffer();
+        mBuffer[mCount++] = (byte) c;
+    }
+
+    private void write(String text, int mode) throws AmlPullWriterException
+    {
+        // The characters are encoded in UTF-8 directly in buffer, without create array of bytes.
+        // In the same scan, a '\' is added before the '"' and '\' of value, and a space between the '!' and '>' of comment, the other characters are copied as is.
+        int length = text.length();
+        for (int i = 0; i < length; i++)
+        {
+            if (mCount > BUFFER_SIZE - 4) writeBuffer();
+
+            char c = text.charAt(i);
+            if (c < 0x80)
+            {
+                if (mode == VALUE && (c == '"' || c == '\\')) mBuffer[mCount++] = '\\';
+                else if (mode == COMMENT && c == '>' && i > 0 && text.charAt(i - 1) == '!') mBuffer[mCount++] = ' ';
+                mBuffer[mCount++] = (byte) c;
+            }
+            else if (c < 0x800)
+            {
+                mBuffer[mCount++] = (byte) (0xC0 | (c >> 6));
+                mBuffer[mCount++] = (byte) (0x80 | (c & 0x3F));
+            }
+            else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1)))
+            {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                mBuffer[mCount++] = (byte) (0xF0 | (codePoint >> 18));
+                mBuffer[mCount++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                mBuffer[mCount++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                mBuffer[mCount++] = (byte) (0x80 | (codePoint & 0x3F));
+            }
+            else if (Character.isSurrogate(c)) mBuffer[mCount++] = '?'; // Like String.getBytes(UTF_8) for a lone surrogate.
+            else
+            {
+                mBuffer[mCount++] = (byte) (0xE0 | (c >> 12));
+                mBuffer[mCount++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                mBuffer[mCount++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void write(byte[] bytes, int offset, int length, int mode) throws AmlPullWriterException
+    {
+        // The bytes are already in UTF-8, the runs without character to escape are copied in buffer.
+        // The bytes of '"', '\\', '!' and '>' are never in the bytes of other characters, they are escaped like in the strings.
+        int end = offset + length;
+        int from = offset;
+        if (mode != TEXT) for (int i = offset; i < end; i++)
+        {
+            byte b = bytes[i];
+            if (mode == VALUE ? b != '"' && b != '\\' : b != '>' || i == offset || bytes[i - 1] != '!') continue;
+
+            copy(bytes, from, i - from);
+            write(mode == VALUE ? '\\' : ' ');
+            from = i;
+        }
+        copy(bytes, from, end - from);
+    }
+
+    private void copy(byte[] bytes, int offset, int length) throws AmlPullWriterException
+    {
+        while (length > 0)
+        {
+            if (mCount == BUFFER_SIZE) writeBuffer();
+
+            int count = Math.min(length, BUFFER_SIZE - mCount);
+            System.arraycopy(bytes, offset, mBuffer, mCount, count);
+            mCount += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    private void writeBuffer() throws AmlPullWriterException
+    {
+        if (mCount == 0) return;
+        if (mChannel != null)
+        {
+            // The bytes are copied in direct chunks, the full chunks are written together by a gathering write.
+            int offset = 0;
+            while (offset < mCount)
+            {
+                if (mChunk == null) mChunk = takeChunk();
+
+                int length = Math.min(mCount - offset, mChunk.remaining());
+                mChunk.put(mBuffer, offset, length);
+                offset += length;
+                if (mChunk.hasRemaining()) continue;
+
+                mChunks[mChunkCount++] = mChunk.flip();
+                mChunk = null;
+                if (mChunkCount == GATHER_SIZE) writeChunks();
+            }
+            mCount = 0;
+            return;
+        }
+
+        try {
+            mOutput.write(mBuffer, 0, mCount);
+            mCount = 0;
+        } catch (IOException e) {
+            throw new AmlPullWriterException(e);
+        }
+    }
+
+    private void writeAll() throws AmlPullWriterException
+    {
+        writeBuffer();
+        if (mChannel == null) return;
+
+        // The last chunk is written even if it's not full.
+        if (mChunk != null && mChunk.position() > 0)
+        {
+            mChunks[mChunkCount++] = mChunk.flip();
+            mChunk = null;
+        }
+        writeChunks();
+    }
+
+    private void writeChunks() throws AmlPullWriterException
+    {
+        try {
+            int offset = 0;
+            while (offset < mChunkCount)
+            {
+                if (mChannel instanceof GatheringByteChannel) ((GatheringByteChannel) mChannel).write(mChunks, offset, mChunkCount - offset);
+                else mChannel.write(mChunks[offset]);
+
+                while (offset < mChunkCount && !mChunks[offset].hasRemaining()) offset++;
+            }
+        } catch (IOException e) {
+            throw new AmlPullWriterException(e);
+        } finally {
+            releaseChunks();
+        }
+    }
+
+    private void releaseChunks()
+    {
+        for (int i = 0; i < mChunkCount; i++)
+        {
+            CHUNKS.offer(mChunks[i].clear());
+            mChunks[i] = null;
+        }
+        mChunkCount = 0;
+    }
+
+    private void checkWritten()
+    {
+        // The bytes of previous output are never dropped, they must be written by flush() or close() before the output is changed.
+        if (mDepth > 0) throw new IllegalStateException("Illegal state, " + mDepth + " element(s) not ended. End them and flush the writer before change output.");
+        if (mCount > 0 || mChunkCount > 0 || (mChunk != null && mChunk.position() > 0)) throw new IllegalStateException("Illegal state, bytes are not written. Flush the writer before change output.");
+    }
+
+    private void reset()
+    {
+        // Only called when all bytes are written or on close, the chunks go back in pool.
+        if (mChunk != null) CHUNKS.offer(mChunk.clear());
+        mChunk = null;
+        releaseChunks();
+        mCount = 0;
+        mDepth = 0;
+        mStartTagOpen = false;
+    }
+
+    private static ByteBuffer takeChunk()
+    {
+        ByteBuffer chunk = CHUNKS.poll();
+        return chunk != null ? chunk : ByteBuffer.allocateDirect(CHUNK_SIZE);
+    }
 }
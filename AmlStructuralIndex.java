@@ -0,0 +1,152 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlStructuralIndex
+{
+    /**
+     * Flag of closing quote entry when the attribute value contains escaped characters.
+     */
+    static final int ESCAPED = 0x80000000;
+    static final int POSITION = 0x7FFFFFFF;
+
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
+
+    private int[] mTape = new int[256];
+    private int mCount;
+
+    /**
+     * Record in one pass the positions of structural bytes between {@code from} and {@code to} :
+     * tag bounds '{' '/' '}', '=' and quotes of attributes, and '<' '>' of comments.
+     * The bytes inside attribute values and comments are never recorded, so escaped quotes are already resolved.
+     */
+    void build(ByteBuffer buffer, int from, int to)
+    {
+        mCount = 0;
+
+        // The words are read in little endian, so the first matching byte of word is given by its lowest bits.
+        ByteBuffer words = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int i = from;
+        while (i < to) {
+            i = find(words, i, to, '{', '<');
+            if (i == to) break;
+
+            if (words.get(i) == '{')
+            {
+                add(i);
+                i = buildTag(words, i + 1, to);
+            }
+            else if (i + 1 < to && words.get(i + 1) == '!')
+            {
+                add(i);
+                i = buildComment(words, i + 2, to);
+            }
+            else i++;
+        }
+    }
+
+    int length()
+    {
+        return mCount;
+    }
+
+    int get(int entry)
+    {
+        return mTape[entry];
+    }
+
+    /**
+     * Get the first entry from {@code entry} which is at or after {@code position}, or {@link AmlStructuralIndex#length()} if none.
+     */
+    int find(int entry, int position)
+    {
+        while (entry < mCount && (mTape[entry] & POSITION) < position) entry++;
+        return entry;
+    }
+
+    private int buildTag(ByteBuffer buffer, int i, int to)
+    {
+        while (i < to) {
+            byte b = buffer.get(i);
+            if (b == '"') i = buildValue(buffer, i, to);
+            else
+            {
+                if (b == '}')
+                {
+                    add(i);
+                    return i + 1;
+                }
+                if (b == '/' || b == '=') add(i);
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private int buildValue(ByteBuffer buffer, int i, int to)
+    {
+        add(i++);
+
+        int escaped = 0;
+        while (i < to) {
+            i = find(buffer, i, to, '"', '\\');
+            if (i == to) break;
+            if (buffer.get(i) == '"')
+            {
+                add(i | escaped);
+                return i + 1;
+            }
+            escaped = ESCAPED;
+            i += 2;
+        }
+        return to;
+    }
+
+    private int buildComment(ByteBuffer buffer, int i, int to)
+    {
+        while (i + 1 < to) {
+            i = find(buffer, i, to - 1, '!', '!');
+            if (i == to - 1) break;
+            if (buffer.get(i + 1) == '>')
+            {
+                add(i + 1);
+                return i + 2;
+            }
+            i++;
+        }
+        return to;
+    }
+
+    private static int find(ByteBuffer buffer, int i, int to, char stop1, char stop2)
+    {
+        // Eight bytes are tested at once : a byte equal to stop gives a zero byte after xor, and only a zero byte keeps its high bit after the subtraction.
+        long pattern1 = ONES * stop1;
+        long pattern2 = ONES * stop2;
+        for (; i + 8 <= to; i += 8)
+        {
+            long word = buffer.getLong(i);
+            long x1 = word ^ pattern1;
+            long x2 = word ^ pattern2;
+            long found = ((x1 - ONES) & ~x1 & HIGHS) | ((x2 - ONES) & ~x2 & HIGHS);
+            if (found != 0) return i + (Long.numberOfTrailingZeros(found) >>> 3);
+        }
+        while (i < to && buffer.get(i) != stop1 && buffer.get(i) != stop2) i++;
+        return i;
+    }
+
+    private void add(int entry)
+    {
+        if (mCount == mTape.length)
+        {
+            int[] tape = new int[mTape.length << 1];
+            System.arraycopy(mTape, 0, tape, 0, mCount);
+            mTape = tape;
+        }
+        mTape[mCount++] = entry;
+    }
+}
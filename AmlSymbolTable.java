@@ -0,0 +1,189 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlSymbolTable
+{
+    private static final int MAX_SYMBOLS = 4096;
+
+    private int[] mSlots = new int[64];
+    private int[] mSymbolSlots = new int[64];
+    private int[] mHashes = new int[32];
+    private byte[][] mKeys = new byte[32][];
+    private String[] mSymbols = new String[32];
+    private String[] mPrefixes = new String[32];
+    private String[] mLocals = new String[32];
+    private int mCount;
+
+    /**
+     * Get the canonical string of bytes. No string is created when bytes are already known.
+     */
+    String intern(byte[] bytes, int offset, int length, int hash)
+    {
+        int mask = mSlots.length - 1;
+        int slot = spread(hash) & mask;
+        while (true) {
+            int id = mSlots[slot] - 1;
+            if (id < 0) break;
+            if (mHashes[id] == hash && equals(mKeys[id], bytes, offset, length)) return mSymbols[id];
+            slot = (slot + 1) & mask;
+        }
+
+        // All the names of document are kept, so a repeated name is always the same instance until the next input.
+        String symbol = new String(bytes, offset, length, StandardCharsets.UTF_8);
+        int id = mCount++;
+        if (id >= mHashes.length) growEntries();
+
+        byte[] key = new byte[length];
+        System.arraycopy(bytes, offset, key, 0, length);
+
+        mHashes[id] = hash;
+        mKeys[id] = key;
+        mSymbols[id] = symbol;
+        mSlots[slot] = id + 1;
+        insertSymbol(id);
+
+        if ((mCount << 1) > mSlots.length) growSlots();
+        return symbol;
+    }
+
+    /**
+     * Forget all the names when the previous documents gave too much different names, else they are kept for the next documents.
+     * Called for each new input, so the table don't grow with all the documents of a reused parser.
+     */
+    void trim()
+    {
+        if (mCount <= MAX_SYMBOLS) return;
+
+        mSlots = new int[64];
+        mSymbolSlots = new int[64];
+        mHashes = new int[32];
+        mKeys = new byte[32][];
+        mSymbols = new String[32];
+        mPrefixes = new String[32];
+        mLocals = new String[32];
+        mCount = 0;
+    }
+
+    /**
+     * Get the canonical prefix of qualified symbol, or {@code null} if the symbol is not owned by this table.
+     */
+    String prefix(String symbol)
+    {
+        int id = find(symbol);
+        if (id < 0) return null;
+        if (mPrefixes[id] == null) split(id);
+        return mPrefixes[id];
+    }
+
+    /**
+     * Get the canonical local name of qualified symbol, or {@code null} if the symbol is not owned by this table.
+     */
+    String local(String symbol)
+    {
+        int id = find(symbol);
+        if (id < 0) return null;
+        if (mLocals[id] == null) split(id);
+        return mLocals[id];
+    }
+
+    static int hash(byte[] bytes, int offset, int length)
+    {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) hash = 31 * hash + bytes[i];
+        return hash;
+    }
+
+    private void split(int id)
+    {
+        byte[] key = mKeys[id];
+        int cut = 0;
+        while (cut < key.length && key[cut] != ':') cut++;
+        if (cut == key.length)
+        {
+            mPrefixes[id] = "";
+            mLocals[id] = mSymbols[id];
+            return;
+        }
+
+        String prefix = intern(key, 0, cut, hash(key, 0, cut));
+        String local = intern(key, cut + 1, key.length - cut - 1, hash(key, cut + 1, key.length - cut - 1));
+        mPrefixes[id] = prefix;
+        mLocals[id] = local;
+    }
+
+    private int find(String symbol)
+    {
+        int mask = mSymbolSlots.length - 1;
+        int slot = spread(symbol.hashCode()) & mask;
+        while (true) {
+            int id = mSymbolSlots[slot] - 1;
+            if (id < 0) return -1;
+            if (mSymbols[id] == symbol) return id;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void insertSymbol(int id)
+    {
+        int mask = mSymbolSlots.length - 1;
+        int slot = spread(mSymbols[id].hashCode()) & mask;
+        while (mSymbolSlots[slot] != 0) slot = (slot + 1) & mask;
+        mSymbolSlots[slot] = id + 1;
+    }
+
+    private void growEntries()
+    {
+        int length = mHashes.length << 1;
+
+        int[] hashes = new int[length];
+        System.arraycopy(mHashes, 0, hashes, 0, mHashes.length);
+        mHashes = hashes;
+
+        byte[][] keys = new byte[length][];
+        System.arraycopy(mKeys, 0, keys, 0, mKeys.length);
+        mKeys = keys;
+
+        String[] symbols = new String[length];
+        System.arraycopy(mSymbols, 0, symbols, 0, mSymbols.length);
+        mSymbols = symbols;
+
+        String[] prefixes = new String[length];
+        System.arraycopy(mPrefixes, 0, prefixes, 0, mPrefixes.length);
+        mPrefixes = prefixes;
+
+        String[] locals = new String[length];
+        System.arraycopy(mLocals, 0, locals, 0, mLocals.length);
+        mLocals = locals;
+    }
+
+    private void growSlots()
+    {
+        mSlots = new int[mSlots.length << 1];
+        mSymbolSlots = new int[mSymbolSlots.length << 1];
+
+        int mask = mSlots.length - 1;
+        for (int id = 0; id < mCount; id++)
+        {
+            int slot = spread(mHashes[id]) & mask;
+            while (mSlots[slot] != 0) slot = (slot + 1) & mask;
+            mSlots[slot] = id + 1;
+            insertSymbol(id);
+        }
+    }
+
+    private static int spread(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(byte[] key, byte[] bytes, int offset, int length)
+    {
+        if (key.length != length) return false;
+        for (int i = 0; i < length; i++) if (key[i] != bytes[offset + i]) return false;
+        return true;
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ */
+final class AmlTagScanner
+{
+    static final int CONTENT = 0;
+    static final int STATE = 0xF;
+    static final int EVENT = ~STATE;
+    static final int TOKEN = 1 << 4;
+    static final int START = 2 << 4;
+    static final int EMPTY = 3 << 4;
+    static final int END = 4 << 4;
+    static final int ILLEGAL = 5 << 4;
+
+    private static final int OPEN = 1;
+    private static final int TAG = 2;
+    private static final int VALUE = 3;
+    private static final int ESCAPE = 4;
+    private static final int SLASH = 5;
+    private static final int CLOSE = 6;
+    private static final int LT = 7;
+    private static final int COMMENT = 8;
+    private static final int BANG = 9;
+
+    /**
+     * Scan one byte of document. Only the bounds of tags are found, the parser checks the syntax when it reads them.
+     * <br>
+     * The scan starts with {@link AmlTagScanner#CONTENT} and the result is given back for the next byte.
+     * Its bits {@link AmlTagScanner#EVENT} give what the byte is :
+     * {@link AmlTagScanner#TOKEN} the '{' or '<' starting a tag or a comment, {@link AmlTagScanner#START} the byte after '{' of a start tag,
+     * {@link AmlTagScanner#EMPTY} the '}' of an empty element, {@link AmlTagScanner#END} the '}' of an end tag,
+     * {@link AmlTagScanner#ILLEGAL} the byte after "{/" which is not '}', else {@code 0}.
+     */
+    static int next(int scan, byte b)
+    {
+        switch (scan & STATE)
+        {
+            case CONTENT:
+                if (b == '{') return OPEN | TOKEN;
+                if (b == '<') return LT | TOKEN;
+                return CONTENT;
+            case OPEN:
+                if (b == '/') return CLOSE;
+                if (b == '}') return CONTENT | START;
+                return (b == '"' ? VALUE : TAG) | START;
+            case TAG:
+                if (b == '"') return VALUE;
+                if (b == '/') return SLASH;
+                if (b == '}') return CONTENT;
+                return TAG;
+            case VALUE:
+                if (b == '\\') return ESCAPE;
+                if (b == '"') return TAG;
+                return VALUE;
+            case ESCAPE:
+                return VALUE;
+            case SLASH:
+                if (b == '}') return CONTENT | EMPTY;
+                if (b == '"') return VALUE;
+                if (b == ' ' || b == '\n' || b == '\r' || b == '\t') return SLASH;
+                return TAG;
+            case CLOSE:
+                return CONTENT | (b == '}' ? END : ILLEGAL);
+            case LT:
+                return b == '!' ? COMMENT : CONTENT;
+            case COMMENT:
+                return b == '!' ? BANG : COMMENT;
+            case BANG:
+                if (b == '>') return CONTENT;
+                return b == '!' ? BANG : COMMENT;
+            default:
+                return CONTENT;
+        }
+    }
+
+    private AmlTagScanner() {}
+}
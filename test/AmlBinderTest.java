@@ -0,0 +1,104 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ * <br><br>
+ * Check of {@link AmlBinder} on records, beans and lists, with the missing attributes and lists.
+ * Run with {@code java AmlBinderTest}, a difference throws {@link AssertionError}.
+ */
+public final class AmlBinderTest
+{
+    enum Color { RED, GREEN }
+
+    record Author(String name, int born) {}
+
+    record Book(String title, double price, float rate, long id, boolean available, Integer stock, Color color, Author editor, List<Author> author) {}
+
+    public static final class Shelf
+    {
+        private String mLabel;
+        private int mSize;
+        private Author mOwner;
+        private List<Book> mBooks;
+
+        public void setLabel(String label)
+        {
+            mLabel = label;
+        }
+
+        public void setSize(int size)
+        {
+            mSize = size;
+        }
+
+        public void setOwner(Author owner)
+        {
+            mOwner = owner;
+        }
+
+        public void setBook(List<Book> books)
+        {
+            mBooks = books;
+        }
+    }
+
+    public static void main(String[] args) throws AmlPullParserException
+    {
+        AmlPullParser parser = parser("{book title=\"Dune\" price=\"9.5\" rate=\"4.25\" id=\"123456789012\" available=\"true\" color=\"GREEN\" extra=\"skipped\"}"
+                + "<!comment!>{editor name=\"Chilton\" born=\"1930\"/}{unknown}{author name=\"skipped\"/}{/}"
+                + "{author name=\"Herbert\" born=\"1920\"/}{author born=\"1\" name=\"Second\"/}{/}");
+        Book book = AmlBinder.of(Book.class).read(parser);
+        check(new Book("Dune", 9.5, 4.25f, 123456789012L, true, null, Color.GREEN, new Author("Chilton", 1930),
+                List.of(new Author("Herbert", 1920), new Author("Second", 1))), book, "record");
+        check(AmlPullParser.END_TAG, parser.getEventType(), "event after record");
+
+        // The missing attributes give their default value, the missing list is empty.
+        book = AmlBinder.of(Book.class).read(parser("{book title=\"Empty\"/}"));
+        check(new Book("Empty", 0, 0, 0, false, null, null, null, List.of()), book, "empty record");
+
+        Shelf shelf = AmlBinder.of(Shelf.class).read(parser("{shelf label=\"top\" size=\"2\"}{owner name=\"Ann\" born=\"1990\"/}{book title=\"A\"/}{book title=\"B\" price=\"1\"/}{/}"));
+        check("top", shelf.mLabel, "bean label");
+        check(2, shelf.mSize, "bean size");
+        check(new Author("Ann", 1990), shelf.mOwner, "bean owner");
+        check(List.of("A", "B"), shelf.mBooks.stream().map(Book::title).toList(), "bean books");
+        check(1.0, shelf.mBooks.get(1).price(), "bean book price");
+
+        shelf = AmlBinder.of(Shelf.class).read(parser("{shelf label=\"none\"/}"));
+        check(List.of(), shelf.mBooks, "bean missing list");
+        check(null, shelf.mOwner, "bean missing element");
+
+        try {
+            AmlBinder.of(Book.class).read(parser("{book price=\"cheap\"/}"));
+            throw new AssertionError("Illegal number is accepted");
+        } catch (AmlPullParserException expected) {}
+        try {
+            AmlBinder.of(Book.class).read(parser("{book color=\"BLUE\"/}"));
+            throw new AssertionError("Illegal enum is accepted");
+        } catch (AmlPullParserException expected) {}
+        try {
+            AmlBinder.of(Runnable.class);
+            throw new AssertionError("Interface is accepted");
+        } catch (IllegalArgumentException expected) {}
+
+        check(true, AmlBinder.of(Book.class) == AmlBinder.of(Book.class), "cached binder");
+        System.out.println("AmlBinderTest : all checks passed.");
+    }
+
+    private static void check(Object expected, Object actual, String what)
+    {
+        if (expected == null ? actual != null : !expected.equals(actual)) throw new AssertionError(what + " is " + actual + " but expected " + expected);
+    }
+
+    private static AmlPullParser parser(String document) throws AmlPullParserException
+    {
+        AmlPullParser parser = AmlPullParser.newPullParser();
+        parser.setFeature(AmlPullParser.FEATURE_PROCESS_COMMENTS, true);
+        parser.setInput(ByteBuffer.wrap(document.getBytes(StandardCharsets.UTF_8)));
+        if (parser.next() != AmlPullParser.START_TAG) throw new AssertionError("Document has no element");
+        return parser;
+    }
+}
@@ -0,0 +1,183 @@
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ * <br><br>
+ * Check of {@link AmlPullWriter.Document} : a random tree built in a document and in objects must be written with the same bytes and give the same getters,
+ * after adds and removes. The cycles, the elements of other document and the elements of a cleared document are refused.
+ * Run with {@code java AmlDocumentTest}, a difference throws {@link AssertionError}.
+ */
+public final class AmlDocumentTest
+{
+    private static final int TREES = 2000;
+    private static final int CHAIN = 100000;
+
+    public static void main(String[] args) throws AmlPullWriterException
+    {
+        Random random = new Random(3);
+        AmlPullWriter.Document document = AmlPullWriter.newDocument();
+        for (int i = 0; i < TREES; i++)
+        {
+            // The document is cleared for each tree, its arrays and strings are reused.
+            document.clear();
+            AmlPullWriter.Element expected = AmlPullWriter.newElement("root");
+            AmlPullWriter.Element actual = document.newElement("root");
+            build(random, document, expected, actual, 0);
+            compare(expected, actual);
+            check(true, Arrays.equals(write(expected), write(actual)), "bytes of tree " + i);
+        }
+
+        document.clear();
+        AmlPullWriter.Element a = document.newElement("a");
+        AmlPullWriter.Element b = document.newElement("b");
+        AmlPullWriter.Element c = document.newElement("c");
+        a.addElement(b);
+        b.addElement(c);
+        refused(() -> c.addElement(a), "cycle");
+        refused(() -> b.addElement(b), "element child of itself");
+        refused(() -> a.addElement(c), "element with two parents");
+        refused(() -> a.addElement(AmlPullWriter.newElement("other")), "element of object tree");
+        refused(() -> a.addElement(AmlPullWriter.newDocument().newElement("other")), "element of other document");
+        a.removeElement(b);
+        c.addElement(a); // b is no longer an ancestor of c, a can be a child of c.
+        check(1, c.getElementCount(), "children after remove");
+
+        // A view created before clear would alias the element reusing its index.
+        document.clear();
+        AmlPullWriter.Element reused = document.newElement("reused");
+        stale(() -> a.getName(), "getName");
+        stale(() -> a.addAttribute("k", "v"), "addAttribute");
+        stale(() -> a.getElementCount(), "getElementCount");
+        stale(() -> reused.addElement(b), "addElement of stale child");
+        check(false, a.equals(reused), "stale view equals new view");
+        check(0, reused.getAttributeCount(), "attributes of reused index");
+
+        // A deep chain built from the root stays linear, and is written without recursion.
+        document.clear();
+        AmlPullWriter.Element parent = document.newElement("chain");
+        AmlPullWriter.Element top = parent;
+        long start = System.nanoTime();
+        for (int i = 0; i < CHAIN; i++)
+        {
+            AmlPullWriter.Element child = document.newElement("e");
+            parent.addElement(child);
+            parent = child;
+        }
+        long time = (System.nanoTime() - start) / 1000000;
+        if (time > 2000) throw new AssertionError("Chain of " + CHAIN + " elements built in " + time + " ms");
+        AmlPullWriter writer = AmlPullWriter.newPullWriter();
+        writer.setOutput(OutputStream.nullOutputStream());
+        writer.setElement(top);
+        writer.write();
+
+        System.out.println("AmlDocumentTest : all checks passed.");
+    }
+
+    private static void build(Random random, AmlPullWriter.Document document, AmlPullWriter.Element expected, AmlPullWriter.Element actual, int depth) throws AmlPullWriterException
+    {
+        for (int i = random.nextInt(3); i > 0; i--)
+        {
+            String comment = string(random);
+            expected.addComment(comment);
+            actual.addComment(comment);
+        }
+        for (int i = random.nextInt(4); i > 0; i--)
+        {
+            String name = "a" + random.nextInt(3);
+            String value = string(random);
+            expected.addAttribute(name, value);
+            actual.addAttribute(name, value);
+        }
+        if (random.nextInt(4) == 0)
+        {
+            expected.removeAttribute("a1");
+            actual.removeAttribute("a1");
+        }
+
+        int count = depth > 3 ? 0 : random.nextInt(4);
+        for (int i = 0; i < count; i++)
+        {
+            // The object tree removes a child by its name, so the names of siblings are not the same.
+            String name = "e" + i + string(random);
+            AmlPullWriter.Element expectedChild = AmlPullWriter.newElement(name);
+            AmlPullWriter.Element actualChild = document.newElement(name);
+            build(random, document, expectedChild, actualChild, depth + 1);
+            expected.addElement(expectedChild);
+            actual.addElement(actualChild);
+        }
+        if (count > 0 && random.nextInt(4) == 0)
+        {
+            int index = random.nextInt(count);
+            expected.removeElement(expected.getElement(index));
+            actual.removeElement(actual.getElement(index));
+        }
+    }
+
+    private static void compare(AmlPullWriter.Element expected, AmlPullWriter.Element actual) throws AmlPullWriterException
+    {
+        check(expected.getName(), actual.getName(), "name");
+        check(expected.getAttributeCount(), actual.getAttributeCount(), "attribute count of " + expected.getName());
+        for (int i = 0; i < expected.getAttributeCount(); i++)
+        {
+            check(expected.getAttribute(i).getName(), actual.getAttribute(i).getName(), "attribute name of " + expected.getName());
+            check(expected.getAttribute(i).getValue(), actual.getAttribute(i).getValue(), "attribute value of " + expected.getName());
+        }
+        check(expected.getCommentCount(), actual.getCommentCount(), "comment count of " + expected.getName());
+        for (int i = 0; i < expected.getCommentCount(); i++) check(expected.getComment(i).getText(), actual.getComment(i).getText(), "comment of " + expected.getName());
+        check(expected.getElementCount(), actual.getElementCount(), "element count of " + expected.getName());
+        for (int i = 0; i < expected.getElementCount(); i++) compare(expected.getElement(i), actual.getElement(i));
+    }
+
+    private static byte[] write(AmlPullWriter.Element element) throws AmlPullWriterException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        AmlPullWriter writer = AmlPullWriter.newPullWriter();
+        writer.setOutput(output);
+        writer.setElement(element);
+        writer.write();
+        writer.close();
+        return output.toByteArray();
+    }
+
+    private static String string(Random random)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = random.nextInt(6); i > 0; i--) builder.append((char) (random.nextInt(4) == 0 ? 0xE9 + random.nextInt(3000) : "ab\"\\!>".charAt(random.nextInt(6))));
+        return builder.toString();
+    }
+
+    private static void refused(Action action, String what) throws AmlPullWriterException
+    {
+        try {
+            action.run();
+        } catch (IllegalArgumentException expected) {
+            return;
+        }
+        throw new AssertionError(what + " is accepted");
+    }
+
+    private static void stale(Action action, String what) throws AmlPullWriterException
+    {
+        try {
+            action.run();
+        } catch (IllegalStateException expected) {
+            return;
+        }
+        throw new AssertionError(what + " on element of cleared document is accepted");
+    }
+
+    private static void check(Object expected, Object actual, String what)
+    {
+        if (!expected.equals(actual)) throw new AssertionError(what + " is " + actual + " but expected " + expected);
+    }
+
+    private interface Action
+    {
+        void run() throws AmlPullWriterException;
+    }
+}
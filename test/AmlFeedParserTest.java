@@ -0,0 +1,98 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ * <br><br>
+ * Check of {@link AmlFeedParser} when the document is fed by chunks split at random.
+ * The values and typed getters of current event are read at the event and again after each {@link AmlFeedParser#NEED_MORE_INPUT},
+ * they must stay the same as a pull parser on the entire document. Run with {@code java AmlFeedParserTest}, a difference throws {@link AssertionError}.
+ */
+public final class AmlFeedParserTest
+{
+    public static void main(String[] args) throws AmlPullParserException
+    {
+        byte[] document = document(new Random(1));
+        int checks = 0;
+        for (boolean lazy : new boolean[] { false, true })
+        {
+            for (int seed = 0; seed < 32; seed++) checks += feed(document, lazy, new Random(seed), seed % 2 == 0 ? 8 : 4096);
+        }
+        System.out.println("AmlFeedParserTest : " + checks + " checks passed.");
+    }
+
+    private static int feed(byte[] document, boolean lazy, Random random, int maxChunk) throws AmlPullParserException
+    {
+        AmlPullParser expected = AmlPullParser.newPullParser();
+        expected.setFeature(AmlPullParser.FEATURE_LAZY_VALUES, lazy);
+        expected.setInput(ByteBuffer.wrap(document));
+
+        AmlFeedParser parser = AmlFeedParser.newFeedParser();
+        parser.setFeature(AmlPullParser.FEATURE_LAZY_VALUES, lazy);
+
+        int checks = 0;
+        int position = 0;
+        int eventType = -1;
+        String[] values = new String[0];
+        while (true) {
+            int next = parser.next();
+            if (next == AmlFeedParser.NEED_MORE_INPUT)
+            {
+                // The current event must not change while bytes are fed.
+                if (eventType == AmlPullParser.START_TAG) checks += check(parser, values);
+                if (position == document.length) parser.endOfInput();
+                else
+                {
+                    int length = Math.min(document.length - position, 1 + random.nextInt(maxChunk));
+                    parser.feed(ByteBuffer.wrap(document, position, length));
+                    position += length;
+                }
+                continue;
+            }
+
+            eventType = next;
+            int expectedType = expected.next();
+            if (eventType != expectedType) throw new AssertionError("Event " + eventType + " but expected " + expectedType);
+            if (eventType == AmlPullParser.END_DOCUMENT) return checks;
+            if (eventType != AmlPullParser.START_TAG || !"row".equals(expected.getName()))
+            {
+                eventType = -1;
+                continue;
+            }
+
+            values = new String[expected.getAttributeCount()];
+            for (int i = 0; i < values.length; i++) values[i] = expected.getAttributeValue(i);
+            checks += check(parser, values);
+        }
+    }
+
+    private static int check(AmlPullParser parser, String[] values) throws AmlPullParserException
+    {
+        if (parser.getAttributeCount() != values.length) throw new AssertionError("Attribute count " + parser.getAttributeCount() + " but expected " + values.length);
+        for (int i = 0; i < values.length; i++)
+        {
+            String value = parser.getAttributeValue(i);
+            if (!values[i].equals(value)) throw new AssertionError("Attribute " + parser.getAttributeName(i) + " is '" + value + "' but expected '" + values[i] + "'");
+        }
+        if (parser.getAttributeInt(0) != Integer.parseInt(values[0])) throw new AssertionError("Typed attribute id is " + parser.getAttributeInt(0) + " but expected " + values[0]);
+        if (parser.getAttributeDouble(2) != Double.parseDouble(values[2])) throw new AssertionError("Typed attribute price is " + parser.getAttributeDouble(2) + " but expected " + values[2]);
+        return 1;
+    }
+
+    private static byte[] document(Random random)
+    {
+        // The long values put the spans of current event far before the cursor, so the bytes moved by the parser would cover them.
+        StringBuilder builder = new StringBuilder("{rows}");
+        for (int i = 0; i < 2000; i++)
+        {
+            builder.append("{row id=\"").append(random.nextInt(100000))
+                    .append("\" name=\"n\\\"").append("x".repeat(random.nextInt(2500))).append(i)
+                    .append("\" price=\"").append(random.nextInt(1000)).append('.').append(random.nextInt(100))
+                    .append("\"}{/}");
+        }
+        return builder.append("{/}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
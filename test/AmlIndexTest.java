@@ -0,0 +1,170 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ * <br><br>
+ * Check of {@link AmlIndex} : the parser of each indexed element reads the same events than a sequential parser,
+ * the sidecar file is reused while the file don't change, and is built again when it is outdated, broken or made for other depth.
+ * Run with {@code java AmlIndexTest}, a difference throws {@link AssertionError}.
+ */
+public final class AmlIndexTest
+{
+    private static final int DEPTH = 3;
+    private static final String[] COMMENTS = { AmlPullParser.FEATURE_PROCESS_COMMENTS };
+    private static final String[] NAMESPACES = { AmlPullParser.FEATURE_PROCESS_COMMENTS, AmlPullParser.FEATURE_PROCESS_NAMESPACES };
+
+    public static void main(String[] args) throws AmlPullParserException, IOException
+    {
+        Path directory = Files.createTempDirectory("AmlIndexTest");
+        Path file = directory.resolve("document.aml");
+        Path sidecar = directory.resolve("document.aml.idx");
+        try {
+            Files.write(file, document(50).getBytes(StandardCharsets.UTF_8));
+
+            AmlIndex index = AmlIndex.newIndex(file, DEPTH, "id");
+            check(true, Files.isRegularFile(sidecar), "sidecar file");
+            check(true, index.isValid(), "new index");
+            checkContent(index, 50);
+            for (String[] features : new String[][] { COMMENTS, NAMESPACES }) checkParsers(index, file, features);
+
+            // The sidecar file of same file, depth and keys is loaded, not written again.
+            FileTime old = FileTime.fromMillis(Files.getLastModifiedTime(sidecar).toMillis() - 60000);
+            Files.setLastModifiedTime(sidecar, old);
+            index = AmlIndex.newIndex(file, DEPTH, "id");
+            check(old, Files.getLastModifiedTime(sidecar), "reused sidecar file");
+            checkContent(index, 50);
+            checkParsers(index, file, NAMESPACES);
+
+            // Other depth or keys build the index again.
+            index = AmlIndex.newIndex(file, 1, "id");
+            check(false, old.equals(Files.getLastModifiedTime(sidecar)), "sidecar file of other depth");
+            check(0, index.find("/root/x:item").length, "items of depth 1");
+            check(1, index.find("/root").length, "root of depth 1");
+            Files.setLastModifiedTime(sidecar, old);
+            index = AmlIndex.newIndex(file, DEPTH, "id", "a");
+            check(false, old.equals(Files.getLastModifiedTime(sidecar)), "sidecar file of other keys");
+            check(50, index.find("/root/x:item/sub", "a", "1").length, "subs by key");
+
+            // A truncated sidecar file is built again.
+            byte[] bytes = Files.readAllBytes(sidecar);
+            Files.write(sidecar, Arrays.copyOf(bytes, bytes.length / 2));
+            index = AmlIndex.newIndex(file, DEPTH, "id", "a");
+            checkContent(index, 50);
+            checkParsers(index, file, COMMENTS);
+
+            // The changed file makes the index outdated, its parsers are refused and the next load indexes the new file.
+            long offset = index.find("/root/x:item")[0];
+            Files.write(file, document(60).getBytes(StandardCharsets.UTF_8));
+            Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 5000));
+            check(false, index.isValid(), "index of changed file");
+            try {
+                index.newPullParser(offset).close();
+                throw new AssertionError("Outdated index gives a parser");
+            } catch (AmlPullParserException expected) {}
+            index = AmlIndex.newIndex(file, DEPTH, "id");
+            check(true, index.isValid(), "index built again");
+            checkContent(index, 60);
+            checkParsers(index, file, NAMESPACES);
+
+            try {
+                index.newPullParser(offset + 1).close();
+                throw new AssertionError("Offset without element gives a parser");
+            } catch (AmlPullParserException expected) {}
+        } finally {
+            Files.deleteIfExists(sidecar);
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+        System.out.println("AmlIndexTest : all checks passed.");
+    }
+
+    private static void checkContent(AmlIndex index, int count)
+    {
+        check(1, index.find("/root").length, "root");
+        check(count, index.find("/root/x:item").length, "items");
+        check(count, index.find("/root/x:item/sub").length, "subs");
+        check(0, index.find("/root/x:item/sub/deep").length, "elements under depth");
+        check(0, index.find("/missing").length, "missing path");
+
+        long[] offsets = index.find("/root/x:item", "id", "7");
+        check(1, offsets.length, "item by key");
+        check(2, index.getDepth(offsets[0]), "depth of item");
+        check(2, index.find(null, "id", "7").length, "elements of any path by key");
+        check(0, index.find("/root/x:item", "missing", "7").length, "missing key");
+        check(-1, index.getDepth(offsets[0] + 1), "depth of offset without element");
+    }
+
+    private static void checkParsers(AmlIndex index, Path file, String[] features) throws AmlPullParserException
+    {
+        // The indexed elements are the elements until the depth of index, in document order.
+        long[] offsets = index.find("/root/x:item");
+        long[] subs = index.find("/root/x:item/sub");
+        for (int i = 0; i < offsets.length; i += 7)
+        {
+            checkParser(index, file, features, offsets[i], 1 + (2 * i));
+            checkParser(index, file, features, subs[i], 2 + (2 * i));
+        }
+    }
+
+    private static void checkParser(AmlIndex index, Path file, String[] features, long offset, int element) throws AmlPullParserException
+    {
+        AmlPullParser sequential = AmlPullParser.newPullParser();
+        for (String feature : features) sequential.setFeature(feature, true);
+        sequential.setInput(file);
+        int count = -1;
+        while (count < element)
+        {
+            if (sequential.next() == AmlPullParser.START_TAG && sequential.getDepth() <= DEPTH) count++;
+        }
+        String expected = event(sequential) + rest(sequential);
+        sequential.close();
+
+        AmlPullParser parser = index.newPullParser(offset, features);
+        String actual = rest(parser);
+        parser.close();
+        check(expected, actual, "events of indexed element " + element + " with features " + Arrays.toString(features));
+    }
+
+    private static String rest(AmlPullParser parser) throws AmlPullParserException
+    {
+        StringBuilder builder = new StringBuilder();
+        while (parser.next() != AmlPullParser.END_DOCUMENT) builder.append(event(parser));
+        return builder.toString();
+    }
+
+    private static String event(AmlPullParser parser) throws AmlPullParserException
+    {
+        int eventType = parser.getEventType();
+        StringBuilder builder = new StringBuilder().append(eventType).append(' ').append(parser.getDepth());
+        if (eventType == AmlPullParser.COMMENT) builder.append(' ').append(parser.getComment());
+        else builder.append(' ').append(parser.getName()).append(' ').append(parser.getNamespace());
+        if (eventType == AmlPullParser.START_TAG)
+        {
+            for (int i = 0; i < parser.getAttributeCount(); i++) builder.append(' ').append(parser.getAttributeName(i)).append('=').append(parser.getAttributeValue(i));
+        }
+        return builder.append('\n').toString();
+    }
+
+    private static String document(int count)
+    {
+        StringBuilder builder = new StringBuilder("{root amlns:x=\"urn:x\"}");
+        for (int i = 0; i < count; i++)
+        {
+            builder.append("<!item ").append(i).append("!>{x:item id=\"").append(i).append("\"}")
+                    .append("{sub a=\"1\" id=\"").append(i == 7 ? "7" : "s" + i).append("\"}{deep/}{/}{/}");
+        }
+        return builder.append("{/}").toString();
+    }
+
+    private static void check(Object expected, Object actual, String what)
+    {
+        if (expected == null ? actual != null : !expected.equals(actual)) throw new AssertionError(what + " is " + actual + " but expected " + expected);
+    }
+}
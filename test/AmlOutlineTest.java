@@ -0,0 +1,124 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ * <br><br>
+ * Check of {@link AmlOutline#edit(int, int, ByteBuffer)} : after each random edit, the outline must be the outline of a full parse of new document,
+ * and a refused edit must keep the outline and its document unchanged.
+ * Run with {@code java AmlOutlineTest}, a difference throws {@link AssertionError}.
+ */
+public final class AmlOutlineTest
+{
+    private static final int EDITS = 5000;
+    private static final String[] PIECES = { "{x}", "{/}", "{y a=\"1\"/}", "<!c!>", " ", "\"", "}", "{", "abc", "{z b=\"{/}\"}{/}", "!>", "<!", "/", "\n", "{p:q/}" };
+    private static final String DOCUMENT = "<!head!>{root amlns:p=\"urn:p\"}\n"
+            + "  {item id=\"1\"}{p:name v=\"a\"/}<!one!>{list}{e/}{e/}{e v=\"}\"/}{/}{/}\n"
+            + "  {item id=\"2\" p:k=\"{/}\"}\n    {sub}{deep}{p:deeper/}{/}{/}\n  {/}\n"
+            + "  <!between {x} !>{item id=\"3\"/}\n"
+            + "{/}<!tail!>";
+
+    public static void main(String[] args) throws AmlPullParserException
+    {
+        String[] comments = { AmlPullParser.FEATURE_PROCESS_COMMENTS };
+        String[] namespaces = { AmlPullParser.FEATURE_PROCESS_COMMENTS, AmlPullParser.FEATURE_PROCESS_NAMESPACES };
+
+        // An end tag removed changes the structure out of the edited element, the parent is parsed again.
+        AmlOutline outline = AmlOutline.parse(wrap(DOCUMENT), comments);
+        int end = DOCUMENT.indexOf("{/}{/}\n");
+        edit(outline, end, 3, "", comments);
+        edit(outline, end, 0, "{/}", comments);
+        check(dump(AmlOutline.parse(wrap(DOCUMENT), comments)), dump(outline), "outline after undo");
+
+        for (String[] features : new String[][] { comments, namespaces })
+        {
+            Random random = new Random(1);
+            outline = AmlOutline.parse(wrap(DOCUMENT), features);
+            int accepted = 0;
+            for (int i = 0; i < EDITS; i++)
+            {
+                int length = outline.getDocument().remaining();
+                int offset = random.nextInt(length + 1);
+                int removed = random.nextInt(Math.min(8, length - offset) + 1);
+                String inserted = random.nextInt(4) == 0 ? "" : PIECES[random.nextInt(PIECES.length)];
+                if (edit(outline, offset, removed, inserted, features)) accepted++;
+
+                // The outline starts again from the first document sometimes, so the document don't become only text.
+                if (random.nextInt(50) == 0) outline = AmlOutline.parse(wrap(DOCUMENT), features);
+            }
+            if (accepted < EDITS / 10) throw new AssertionError("Only " + accepted + " edits are accepted");
+        }
+
+        try {
+            AmlOutline.parse(wrap(DOCUMENT), comments).edit(DOCUMENT.length(), 1, wrap(""));
+            throw new AssertionError("Edit out of document is accepted");
+        } catch (AmlPullParserException expected) {}
+
+        System.out.println("AmlOutlineTest : all checks passed.");
+    }
+
+    private static boolean edit(AmlOutline outline, int offset, int removed, String inserted, String[] features) throws AmlPullParserException
+    {
+        byte[] document = bytes(outline.getDocument());
+        byte[] insertedBytes = inserted.getBytes(StandardCharsets.UTF_8);
+        byte[] edited = new byte[document.length - removed + insertedBytes.length];
+        System.arraycopy(document, 0, edited, 0, offset);
+        System.arraycopy(insertedBytes, 0, edited, offset, insertedBytes.length);
+        System.arraycopy(document, offset + removed, edited, offset + insertedBytes.length, document.length - offset - removed);
+
+        String expected;
+        try {
+            expected = dump(AmlOutline.parse(ByteBuffer.wrap(edited), features));
+        } catch (AmlPullParserException e) {
+            expected = null;
+        }
+
+        String before = dump(outline);
+        String what = "edit at " + offset + " removing " + removed + " inserting \"" + inserted + "\" of\n" + new String(document, StandardCharsets.UTF_8);
+        try {
+            outline.edit(offset, removed, ByteBuffer.wrap(insertedBytes));
+        } catch (AmlPullParserException e) {
+            if (expected != null) throw new AssertionError("Refused " + what, e);
+            check(before, dump(outline), "outline after refused " + what);
+            check(true, Arrays.equals(document, bytes(outline.getDocument())), "document after refused " + what);
+            return false;
+        }
+        if (expected == null) throw new AssertionError("Accepted invalid " + what);
+        check(expected, dump(outline), "outline after " + what);
+        check(true, Arrays.equals(edited, bytes(outline.getDocument())), "document after " + what);
+        return true;
+    }
+
+    private static String dump(AmlOutline outline)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < outline.getCount(); i++)
+        {
+            builder.append(outline.getType(i)).append(',').append(outline.getDepth(i)).append(',').append(outline.getParent(i)).append(',')
+                    .append(outline.getStart(i)).append(',').append(outline.getEnd(i)).append(',')
+                    .append(outline.getName(i)).append(',').append(outline.getNamespace(i)).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static byte[] bytes(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static ByteBuffer wrap(String document)
+    {
+        return ByteBuffer.wrap(document.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void check(Object expected, Object actual, String what)
+    {
+        if (expected == null ? actual != null : !expected.equals(actual)) throw new AssertionError(what + " is\n" + actual + "but expected\n" + expected);
+    }
+}
@@ -0,0 +1,87 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ * <br><br>
+ * Check of {@link AmlPath} predicates, with and without namespace processing, and of handlers which don't read all the element.
+ * Run with {@code java AmlPathTest}, a difference throws {@link AssertionError}.
+ */
+public final class AmlPathTest
+{
+    private static final String DOCUMENT = "{root amlns:p=\"urn:p\"}"
+            + "{item id=\"1\" p:id=\"a\"}{child n=\"1\"/}{child n=\"2\"}{leaf/}{/}{/}"
+            + "<!between!>"
+            + "{item id=\"2\"}{child n=\"3\"/}{/}"
+            + "{other id=\"3\" p:id=\"c\"/}"
+            + "{item id=\"4\" p:id=\"a\"/}"
+            + "{/}";
+
+    public static void main(String[] args) throws AmlPullParserException
+    {
+        for (boolean namespaces : new boolean[] { false, true })
+        {
+            check("root/item", namespaces, "1,2,4");
+            check("root/*[@id]", namespaces, "1,2,3,4");
+            check("root/item[@id='2']", namespaces, "2");
+            check("root/item[@id=\"4\"]", namespaces, "4");
+            check("root/item[@missing]", namespaces, "");
+            check("root/*[@p:id]", namespaces, "1,3,4");
+            check("root/*[@p:id='a']", namespaces, "1,4");
+            check("root/item/child[@n='2']", namespaces, "2");
+            check("root/item[@id='1']/child", namespaces, "1,2");
+        }
+
+        // The handler stopping on a child, or on the END_TAG of a child, lets the selection continue with the siblings.
+        checkHandler("root/item", child -> {
+            child.next();
+        }, "1,2,4");
+        checkHandler("root/item", child -> {
+            if (child.next() == AmlPullParser.START_TAG) child.next();
+        }, "1,2,4");
+
+        // The handler reading after the element is an error, the selection can't know its position.
+        try {
+            checkHandler("root/item", child -> {
+                for (int i = 0; i < 20; i++) child.next();
+            }, "");
+            throw new AssertionError("Handler reading after its element is accepted");
+        } catch (AmlPullParserException expected) {}
+
+        System.out.println("AmlPathTest : all checks passed.");
+    }
+
+    private static void check(String expression, boolean namespaces, String expected) throws AmlPullParserException
+    {
+        AmlPullParser parser = parser(namespaces);
+        StringBuilder ids = new StringBuilder();
+        AmlPath.compile(expression).select(parser, element -> {
+            // The first attribute is the id or the number of child, the lookup by name would also match p:id with namespaces.
+            ids.append(ids.length() == 0 ? "" : ",").append(element.getAttributeValue(0));
+        });
+        if (!ids.toString().equals(expected)) throw new AssertionError(expression + " with namespaces " + namespaces + " selects " + ids + " but expected " + expected);
+    }
+
+    private static void checkHandler(String expression, AmlPath.Handler handler, String expected) throws AmlPullParserException
+    {
+        AmlPullParser parser = parser(false);
+        StringBuilder ids = new StringBuilder();
+        AmlPath.compile(expression).select(parser, element -> {
+            ids.append(ids.length() == 0 ? "" : ",").append(element.getAttributeValue(0));
+            handler.handle(element);
+        });
+        if (!ids.toString().equals(expected)) throw new AssertionError(expression + " selects " + ids + " but expected " + expected);
+        if (parser.getEventType() != AmlPullParser.END_DOCUMENT && parser.getEventType() != AmlPullParser.END_TAG) throw new AssertionError("Selection ends on event " + parser.getEventType());
+    }
+
+    private static AmlPullParser parser(boolean namespaces) throws AmlPullParserException
+    {
+        AmlPullParser parser = AmlPullParser.newPullParser();
+        parser.setFeature(AmlPullParser.FEATURE_PROCESS_COMMENTS, true);
+        parser.setFeature(AmlPullParser.FEATURE_PROCESS_NAMESPACES, namespaces);
+        parser.setInput(ByteBuffer.wrap(DOCUMENT.getBytes(StandardCharsets.UTF_8)));
+        return parser;
+    }
+}
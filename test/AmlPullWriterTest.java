@@ -0,0 +1,114 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ * <br><br>
+ * Check of the escapes of {@link AmlPullWriter} : the values and comments written are read again by the parser.
+ * The streaming methods and the element trees must write the same bytes, on an output stream and on a channel.
+ * Run with {@code java AmlPullWriterTest}, a difference throws {@link AssertionError}.
+ */
+public final class AmlPullWriterTest
+{
+    private static final int VALUES = 20000;
+    private static final char[] CHARS = { '"', '\\', '!', '>', '<', '{', '}', '/', 'a', 'n', ' ', '\n', 'é', '€', '\uD834', '\uDD1E' };
+
+    public static void main(String[] args) throws AmlPullWriterException, AmlPullParserException
+    {
+        Random random = new Random(5);
+        for (int i = 0; i < VALUES; i++) check(value(random, random.nextInt(20)));
+
+        // The long values cross the buffer of writer and the chunks of channel.
+        for (int length : new int[] { 8191, 8192, 8193, 65536, 200000 }) check(value(random, length));
+        for (String value : new String[] { "", "!>", "!!>>", "a!", "!", ">", "\\\"", "\"\\" }) check(value);
+
+        System.out.println("AmlPullWriterTest : all checks passed.");
+    }
+
+    private static void check(String value) throws AmlPullWriterException, AmlPullParserException
+    {
+        // A lone surrogate is written '?' like by String.getBytes, the value is compared after the same encoding.
+        value = new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+
+        byte[] streamed = null;
+        for (boolean channel : new boolean[] { false, true })
+        {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            AmlPullWriter writer = writer(output, channel);
+            writer.comment(value);
+            writer.startTag("root");
+            writer.attribute("v", value);
+            writer.comment(value);
+            writer.startTag("child");
+            writer.attribute("w", value);
+            writer.endTag();
+            writer.endTag();
+            writer.close();
+
+            byte[] bytes = output.toByteArray();
+            if (streamed == null) streamed = bytes;
+            else if (!Arrays.equals(streamed, bytes)) throw new AssertionError("Channel writes other bytes than stream for value " + value);
+        }
+
+        // The comments of an element tree are written before its start tag.
+        AmlPullWriter.Element root = AmlPullWriter.newElement("root");
+        root.addComment(value);
+        root.addAttribute("v", value);
+        AmlPullWriter.Element child = AmlPullWriter.newElement("child");
+        child.addComment(value);
+        child.addAttribute("w", value);
+        root.addElement(child);
+        for (boolean channel : new boolean[] { false, true })
+        {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            AmlPullWriter writer = writer(output, channel);
+            writer.setElement(root);
+            writer.write();
+            writer.close();
+            if (!Arrays.equals(streamed, output.toByteArray())) throw new AssertionError("Element tree writes other bytes than streaming methods for value " + value + "\n" + output + "\n" + new String(streamed, StandardCharsets.UTF_8));
+        }
+
+        // The parser reads the value again, and the comment with a space between each "!" and ">".
+        String comment = value.replace("!>", "! >");
+        AmlPullParser parser = AmlPullParser.newPullParser();
+        parser.setFeature(AmlPullParser.FEATURE_PROCESS_COMMENTS, true);
+        parser.setInput(new ByteArrayInputStream(streamed));
+        check(AmlPullParser.COMMENT, parser.next(), "first event", value);
+        check(comment, parser.getComment(), "first comment", value);
+        check(AmlPullParser.START_TAG, parser.next(), "root event", value);
+        check(value, parser.getAttributeValue(0), "root value", value);
+        check(AmlPullParser.COMMENT, parser.next(), "child comment event", value);
+        check(comment, parser.getComment(), "child comment", value);
+        check(AmlPullParser.START_TAG, parser.next(), "child event", value);
+        check(value, parser.getAttributeValue(0), "child value", value);
+        check(AmlPullParser.END_TAG, parser.next(), "child end", value);
+        check(AmlPullParser.END_TAG, parser.next(), "root end", value);
+        check(AmlPullParser.END_DOCUMENT, parser.next(), "end of document", value);
+    }
+
+    private static AmlPullWriter writer(ByteArrayOutputStream output, boolean channel)
+    {
+        AmlPullWriter writer = AmlPullWriter.newPullWriter();
+        if (channel) writer.setOutput(Channels.newChannel(output));
+        else writer.setOutput(output);
+        return writer;
+    }
+
+    private static String value(Random random, int length)
+    {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) builder.append(CHARS[random.nextInt(CHARS.length)]);
+        return builder.toString();
+    }
+
+    private static void check(Object expected, Object actual, String what, String value)
+    {
+        if (!expected.equals(actual)) throw new AssertionError(what + " is " + actual + " but expected " + expected + " for value " + value);
+    }
+}
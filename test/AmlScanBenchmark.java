@@ -0,0 +1,75 @@
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ * <br><br>
+ * Regression benchmark of the scan of large values, comments and names.
+ * A document of N MB is parsed from a {@link ByteBuffer} and from an {@link java.io.InputStream}, the time by MB must stay near the same when N grows.
+ * Run with {@code java AmlScanBenchmark}, a quadratic scan throws {@link AssertionError}.
+ */
+public final class AmlScanBenchmark
+{
+    private static final int[] SIZES = { 1, 2, 4, 8, 16 };
+    private static final double MAX_RATIO = 4;
+
+    public static void main(String[] args) throws AmlPullParserException
+    {
+        // The first parses warm up the JIT, they are not measured.
+        for (int i = 0; i < 3; i++)
+        {
+            parse(document(1), false);
+            parse(document(1), true);
+        }
+
+        for (boolean stream : new boolean[] { false, true })
+        {
+            double first = 0;
+            for (int size : SIZES)
+            {
+                byte[] document = document(size);
+                long start = System.nanoTime();
+                parse(document, stream);
+                double perMegabyte = (System.nanoTime() - start) / 1e6 / size;
+                if (first == 0) first = perMegabyte;
+
+                System.out.printf("%s %2d MB : %.2f ms/MB%n", stream ? "stream" : "buffer", size, perMegabyte);
+                if (perMegabyte > first * MAX_RATIO) throw new AssertionError("Scan is not linear, " + perMegabyte + " ms/MB at " + size + " MB but " + first + " ms/MB at " + SIZES[0] + " MB");
+            }
+        }
+        System.out.println("AmlScanBenchmark : linear scan.");
+    }
+
+    private static void parse(byte[] document, boolean stream) throws AmlPullParserException
+    {
+        AmlPullParser parser = AmlPullParser.newPullParser();
+        parser.setFeature(AmlPullParser.FEATURE_PROCESS_COMMENTS, true);
+        if (stream) parser.setInput(new ByteArrayInputStream(document));
+        else parser.setInput(ByteBuffer.wrap(document));
+
+        int length = 0;
+        int eventType;
+        while ((eventType = parser.next()) != AmlPullParser.END_DOCUMENT)
+        {
+            if (eventType == AmlPullParser.COMMENT) length += parser.getComment().length();
+            else if (eventType == AmlPullParser.START_TAG && parser.getAttributeCount() > 0) length += parser.getAttributeValue(0).length() + parser.getAttributeRawValue(0).remaining() + parser.getName().length();
+        }
+
+        // The comment, the raw value and the name have each the third of document, the decoded value has one char for each 12 bytes less.
+        int third = (document.length - 64) / 3;
+        int expected = (third * 4) - (third / 12);
+        if (Math.abs(length - expected) > 64) throw new AssertionError("Read " + length + " chars but expected about " + expected);
+    }
+
+    private static byte[] document(int megabytes)
+    {
+        int length = (megabytes << 20) / 3;
+        String text = "abcdefghij\n".repeat(length / 11 + 1).substring(0, length);
+        String value = "0123456789\\n".repeat(length / 12 + 1).substring(0, length);
+        String name = "n".repeat(length);
+        return ("{root}<!" + text + "!>{" + name + " v=\"" + value + "\"/}{/}").getBytes(StandardCharsets.UTF_8);
+    }
+}
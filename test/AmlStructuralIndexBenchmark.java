@@ -0,0 +1,83 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Créer le : vendredi 17 octobre 2026
+ * Auteur   : Yoann Meclot (DevMyBits)
+ * E-mail   : devmybits@gmail.com
+ * <br><br>
+ * Measure of {@link AmlPullParser#FEATURE_STRUCTURAL_INDEX} on a full parse and on a parse skipping the children of root.
+ * Each document is read with and without the index, the read values must be the same.
+ * Run with {@code java AmlStructuralIndexBenchmark}, a difference throws {@link AssertionError}.
+ */
+public final class AmlStructuralIndexBenchmark
+{
+    private static final int RUNS = 10;
+
+    public static void main(String[] args) throws AmlPullParserException
+    {
+        Random random = new Random(1);
+        measure("small tokens", document(random, 400000, 8));
+        measure("long values ", document(random, 4000, 4000));
+    }
+
+    private static void measure(String name, byte[] document) throws AmlPullParserException
+    {
+        for (boolean skip : new boolean[] { false, true })
+        {
+            long plain = parse(document, false, skip);
+            long indexed = parse(document, true, skip);
+            if (plain != indexed) throw new AssertionError(name + " : indexed parse read " + indexed + " but plain parse read " + plain);
+
+            // The first runs warm up the JIT, only the next runs are measured.
+            for (int i = 0; i < RUNS; i++)
+            {
+                parse(document, false, skip);
+                parse(document, true, skip);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) parse(document, false, skip);
+            double plainTime = (System.nanoTime() - start) / 1e6 / RUNS;
+            start = System.nanoTime();
+            for (int i = 0; i < RUNS; i++) parse(document, true, skip);
+            double indexedTime = (System.nanoTime() - start) / 1e6 / RUNS;
+
+            System.out.printf("%s %s : %.1f ms without index, %.1f ms with index%n", name, skip ? "skip" : "full", plainTime, indexedTime);
+        }
+    }
+
+    private static long parse(byte[] document, boolean indexed, boolean skip) throws AmlPullParserException
+    {
+        AmlPullParser parser = AmlPullParser.newPullParser();
+        parser.setFeature(AmlPullParser.FEATURE_PROCESS_COMMENTS, true);
+        parser.setFeature(AmlPullParser.FEATURE_STRUCTURAL_INDEX, indexed);
+        parser.setInput(ByteBuffer.wrap(document));
+
+        // The sum of read lengths checks that both parsers read the same document.
+        long sum = 0;
+        int eventType;
+        while ((eventType = parser.next()) != AmlPullParser.END_DOCUMENT)
+        {
+            if (eventType == AmlPullParser.COMMENT) sum += parser.getComment().length();
+            else if (eventType == AmlPullParser.START_TAG)
+            {
+                for (int i = 0; i < parser.getAttributeCount(); i++) sum += parser.getAttributeValue(i).length();
+                if (skip && parser.getDepth() == 2) parser.skipSubtree();
+            }
+        }
+        return sum;
+    }
+
+    private static byte[] document(Random random, int count, int valueLength)
+    {
+        StringBuilder builder = new StringBuilder("{root}");
+        for (int i = 0; i < count; i++)
+        {
+            builder.append("{item id=\"").append(i).append("\" text=\"").append("v".repeat(1 + random.nextInt(valueLength))).append("\"}")
+                    .append("<!").append("c".repeat(1 + random.nextInt(valueLength))).append("!>")
+                    .append("{child a=\"").append(random.nextInt()).append("\" b=\"x\\\"y\"/}{/}");
+        }
+        return builder.append("{/}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}